@@ -0,0 +1,53 @@
+package org.folio.benchmarks;
+
+import org.folio.util.AuthUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures password hashing of {@link AuthUtil} across algorithms, iterations and key lengths
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AuthUtilBenchmark {
+
+  private static final String PASSWORD = "Admin!10";
+
+  @Param({"PBKDF2WithHmacSHA1", "PBKDF2WithHmacSHA256", "PBKDF2WithHmacSHA512"})
+  private String algorithm;
+
+  @Param({"1000", "10000"})
+  private int iterations;
+
+  @Param({"160", "256"})
+  private int keyLength;
+
+  private AuthUtil authUtil;
+  private String salt;
+
+  @Setup
+  public void setUp() {
+    authUtil = new AuthUtil(algorithm, iterations, keyLength);
+    salt = authUtil.getSalt();
+  }
+
+  @Benchmark
+  public String calculateHash() {
+    return authUtil.calculateHash(PASSWORD, salt);
+  }
+}
@@ -0,0 +1,61 @@
+package org.folio.benchmarks;
+
+import org.folio.rest.persist.Criteria.Limit;
+import org.folio.rest.persist.Criteria.Offset;
+import org.folio.rest.persist.cql.CQLWrapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.z3950.zing.cql.cql2pgjson.CQL2PgJSON;
+import org.z3950.zing.cql.cql2pgjson.FieldException;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the CQL to SQL translation done by LoginAPI.getCQL for GET /authn/credentials
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CqlTranslationBenchmark {
+
+  private static final String TABLE_NAME_CREDENTIALS = "auth_credentials";
+
+  @Param({"cql.allRecords=1", "userId==bc6e4932-6415-40e2-ac1e-67ecdd665366",
+    "userId==bc6e4932* sortBy userId/sort.descending"})
+  private String query;
+
+  private CQL2PgJSON cql2pgJson;
+
+  @Setup
+  public void setUp() throws FieldException {
+    cql2pgJson = new CQL2PgJSON(TABLE_NAME_CREDENTIALS + ".jsonb");
+  }
+
+  @Benchmark
+  public String getCql() throws FieldException {
+    return new CQLWrapper(new CQL2PgJSON(TABLE_NAME_CREDENTIALS + ".jsonb"), query)
+      .setLimit(new Limit(10))
+      .setOffset(new Offset(0))
+      .toString();
+  }
+
+  @Benchmark
+  public String translateWithSharedCql2PgJson() {
+    return new CQLWrapper(cql2pgJson, query)
+      .setLimit(new Limit(10))
+      .setOffset(new Offset(0))
+      .toString();
+  }
+}
@@ -0,0 +1,138 @@
+package org.folio.benchmarks;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonObject;
+import org.folio.rest.jaxrs.model.CredentialsImportResult;
+import org.folio.rest.persist.PostgresClient;
+import org.folio.util.AuthUtil;
+import org.folio.util.CredentialsImporter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.BufferedReader;
+import java.io.StringReader;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures a bulk import of {@link CredentialsImporter} into an embedded postgres,
+ * once with pre-hashed rows (insert path only) and once with plain text passwords (hashing and insert).
+ * The inputs of a trial are built in memory up front, the heap of the fork is sized for the 1M rows case.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class CredentialsImportBenchmark {
+
+  private static final String TENANT = "benchmark";
+  private static final String PASSWORD = "Benchmark!1";
+
+  @Param({"100000", "1000000"})
+  private int rows;
+
+  @Param({"200"})
+  private int batchSize;
+
+  private Vertx vertx;
+  private PostgresClient pgClient;
+  private String table;
+  private String hashedInput;
+  private String plainInput;
+
+  @Setup(Level.Trial)
+  public void setUp() throws Exception {
+    vertx = Vertx.vertx();
+    PostgresClient.setIsEmbedded(true);
+    PostgresClient.getInstance(vertx).startEmbeddedPostgres();
+    pgClient = PostgresClient.getInstance(vertx, TENANT);
+    String schema = PostgresClient.convertToPsqlStandard(TENANT);
+    table = schema + ".auth_credentials";
+    execute("CREATE SCHEMA IF NOT EXISTS " + schema);
+    execute("CREATE TABLE IF NOT EXISTS " + table + " (_id UUID PRIMARY KEY, jsonb JSONB NOT NULL)");
+    execute("CREATE UNIQUE INDEX IF NOT EXISTS auth_credentials_userid_idx_unique ON "
+      + table + " ((jsonb->>'userId'))");
+
+    AuthUtil authUtil = new AuthUtil();
+    String salt = authUtil.getSalt();
+    String hash = authUtil.calculateHash(PASSWORD, salt);
+    StringBuilder hashed = new StringBuilder();
+    StringBuilder plain = new StringBuilder();
+    for (int i = 0; i < rows; i++) {
+      hashed.append(new JsonObject().put("userId", UUID.randomUUID().toString())
+        .put("hash", hash).put("salt", salt).encode()).append('\n');
+      plain.append(new JsonObject().put("userId", UUID.randomUUID().toString())
+        .put("password", PASSWORD).encode()).append('\n');
+    }
+    hashedInput = hashed.toString();
+    plainInput = plain.toString();
+  }
+
+  @Setup(Level.Invocation)
+  public void truncate() throws Exception {
+    execute("TRUNCATE " + table);
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    PostgresClient.stopEmbeddedPostgres();
+    vertx.close();
+  }
+
+  @Benchmark
+  public CredentialsImportResult importHashed() throws Exception {
+    return importCredentials(hashedInput);
+  }
+
+  @Benchmark
+  public CredentialsImportResult importPlainText() throws Exception {
+    return importCredentials(plainInput);
+  }
+
+  private CredentialsImportResult importCredentials(String input) throws Exception {
+    CompletableFuture<CredentialsImportResult> result = new CompletableFuture<>();
+    vertx.runOnContext(v ->
+      new CredentialsImporter(pgClient, TENANT, null, batchSize)
+        .importCredentials(new BufferedReader(new StringReader(input)))
+        .setHandler(done -> complete(result, done)));
+    return result.get();
+  }
+
+  private void execute(String sql) throws Exception {
+    CompletableFuture<Void> result = new CompletableFuture<>();
+    Future<Void> future = Future.future();
+    pgClient.execute(sql, reply -> {
+      if (reply.failed()) {
+        future.fail(reply.cause());
+      } else {
+        future.complete();
+      }
+    });
+    future.setHandler(done -> complete(result, done));
+    result.get();
+  }
+
+  private static <T> void complete(CompletableFuture<T> completable, AsyncResult<T> result) {
+    if (result.failed()) {
+      completable.completeExceptionally(result.cause());
+    } else {
+      completable.complete(result.result());
+    }
+  }
+}
@@ -0,0 +1,72 @@
+package org.folio.benchmarks;
+
+import io.vertx.core.json.JsonObject;
+import org.folio.rest.jaxrs.model.Credential;
+import org.folio.rest.jaxrs.model.LogEvent;
+import org.folio.rest.jaxrs.model.LoginAttempts;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Date;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link JsonObject#mapFrom(Object)} of the entities mapped on every request
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JsonMappingBenchmark {
+
+  private Credential credential;
+  private LoginAttempts loginAttempts;
+  private LogEvent logEvent;
+
+  @Setup
+  public void setUp() {
+    String userId = UUID.randomUUID().toString();
+    credential = new Credential()
+      .withId(UUID.randomUUID().toString())
+      .withUserId(userId)
+      .withHash("0C4BD1F1C1A2B9C9E4E1F1C5F6B3A7D4E5F6A7B8")
+      .withSalt("5A2C0E4F8B7D9A1C3E5F7A9B1D3F5A7C9E1B3D5F");
+    loginAttempts = new LoginAttempts()
+      .withId(UUID.randomUUID().toString())
+      .withUserId(userId)
+      .withAttemptCount(3)
+      .withLastAttempt(new Date());
+    logEvent = new LogEvent()
+      .withId(UUID.randomUUID().toString())
+      .withTenant("diku")
+      .withUserId(userId)
+      .withEventCode("SUCCESSFUL_LOGIN_ATTEMPT")
+      .withTimestamp(new Date());
+  }
+
+  @Benchmark
+  public JsonObject mapCredential() {
+    return JsonObject.mapFrom(credential);
+  }
+
+  @Benchmark
+  public JsonObject mapLoginAttempts() {
+    return JsonObject.mapFrom(loginAttempts);
+  }
+
+  @Benchmark
+  public JsonObject mapLogEvent() {
+    return JsonObject.mapFrom(logEvent);
+  }
+}
@@ -0,0 +1,42 @@
+package org.folio.benchmarks;
+
+import org.folio.util.AuthUtil;
+import org.folio.util.Pbkdf2;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.security.SecureRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures salt generation of {@link AuthUtil} against seeding a new {@link SecureRandom} per salt
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SaltBenchmark {
+
+  private final AuthUtil authUtil = new AuthUtil();
+
+  @Benchmark
+  public String getSalt() {
+    return authUtil.getSalt();
+  }
+
+  @Benchmark
+  public String newSecureRandom() {
+    byte[] bytes = new byte[20];
+    new SecureRandom().nextBytes(bytes);
+    return Pbkdf2.printHex(bytes);
+  }
+}
@@ -10,6 +10,9 @@ import org.folio.rest.resource.interfaces.InitAPI;
 import org.folio.services.ConfigurationService;
 import org.folio.services.LogStorageService;
 import org.folio.services.PasswordStorageService;
+import org.folio.util.EventLogPartitions;
+import org.folio.util.HashCalibrator;
+import org.folio.util.LoginAttemptsStore;
 
 import java.net.URL;
 import java.util.MissingResourceException;
@@ -39,8 +42,10 @@ public class InitAPIs implements InitAPI {
       new ServiceBinder(vertx)
         .setAddress(EVENT_CONFIG_PROXY_CONFIG_ADDRESS)
         .register(ConfigurationService.class, ConfigurationService.create(vertx));
+      LoginAttemptsStore.getInstance().start(vertx);
+      EventLogPartitions.start(vertx);
 
-      resultHandler.handle(Future.succeededFuture(true));
+      HashCalibrator.start(vertx).setHandler(calibrated -> resultHandler.handle(Future.succeededFuture(true)));
     }
   }
 }
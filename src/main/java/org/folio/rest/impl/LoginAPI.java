@@ -6,24 +6,27 @@ import io.vertx.core.Context;
 import io.vertx.core.Future;
 import io.vertx.core.Handler;
 import io.vertx.core.Vertx;
+import io.vertx.core.eventbus.ReplyException;
 import io.vertx.core.http.HttpClient;
-import io.vertx.core.http.HttpClientOptions;
 import io.vertx.core.http.HttpClientRequest;
+import io.vertx.core.json.JsonArray;
 import io.vertx.core.json.JsonObject;
 import io.vertx.core.logging.Logger;
 import io.vertx.core.logging.LoggerFactory;
+import io.vertx.ext.sql.ResultSet;
 import org.apache.commons.lang3.tuple.Pair;
 import org.folio.rest.RestVerticle;
-import org.folio.rest.jaxrs.model.ConfigResponse;
 import org.folio.rest.jaxrs.model.Credential;
 import org.folio.rest.jaxrs.model.CredentialsListObject;
 import org.folio.rest.jaxrs.model.Error;
 import org.folio.rest.jaxrs.model.Errors;
+import org.folio.rest.jaxrs.model.HashCalibration;
 import org.folio.rest.jaxrs.model.LogEvent;
 import org.folio.rest.jaxrs.model.LogEvents;
 import org.folio.rest.jaxrs.model.LogResponse;
 import org.folio.rest.jaxrs.model.LoginAttempts;
 import org.folio.rest.jaxrs.model.LoginCredentials;
+import org.folio.rest.jaxrs.model.Metrics;
 import org.folio.rest.jaxrs.model.Parameter;
 import org.folio.rest.jaxrs.model.Password;
 import org.folio.rest.jaxrs.model.PasswordCreate;
@@ -42,15 +45,31 @@ import org.folio.rest.persist.cql.CQLWrapper;
 import org.folio.rest.tools.utils.TenantTool;
 import org.folio.rest.tools.utils.ValidationHelper;
 import org.folio.services.PasswordStorageService;
-import org.folio.services.ConfigurationService;
 import org.folio.services.LogStorageService;
 import org.folio.util.AuthUtil;
+import org.folio.util.CredentialsImporter;
+import org.folio.util.HashCalibrator;
+import org.folio.util.HashDescriptor;
+import org.folio.util.HashEngines;
+import org.folio.util.HashingExecutor;
+import org.folio.util.HttpClientRegistry;
+import org.folio.util.LoginAttemptsStore;
+import org.folio.util.LoginPolicy;
+import org.folio.util.LoginPolicyLoader;
 import org.folio.util.OkapiConnectionParams;
+import org.folio.util.SingleFlight;
+import org.folio.util.TotalRecords;
+import org.folio.util.UserCache;
+import org.folio.util.UserLockouts;
 import org.z3950.zing.cql.cql2pgjson.CQL2PgJSON;
 
 import javax.ws.rs.core.Response;
+import java.io.BufferedReader;
+import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.net.URL;
 import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -63,11 +82,11 @@ import static org.folio.rest.RestVerticle.MODULE_SPECIFIC_ARGS;
 import static org.folio.util.LoginAttemptsHelper.LOGIN_ATTEMPTS_SCHEMA_PATH;
 import static org.folio.util.LoginAttemptsHelper.TABLE_NAME_LOGIN_ATTEMPTS;
 import static org.folio.util.LoginAttemptsHelper.buildCriteriaForUserAttempts;
-import static org.folio.util.LoginAttemptsHelper.getLoginAttemptsByUserId;
-import static org.folio.util.LoginAttemptsHelper.onLoginFailAttemptHandler;
-import static org.folio.util.LoginAttemptsHelper.onLoginSuccessAttemptHandler;
-import static org.folio.util.LoginConfigUtils.EVENT_CONFIG_PROXY_CONFIG_ADDRESS;
+import static org.folio.util.LoginAttemptsHelper.onLoginFailAttempt;
+import static org.folio.util.LoginAttemptsHelper.onLoginSuccessAttempt;
 import static org.folio.util.LoginConfigUtils.EVENT_CONFIG_PROXY_STORY_ADDRESS;
+import static org.folio.util.LoginConfigUtils.EVENT_LOG_QUEUE_FULL_CODE;
+import static org.folio.util.LoginConfigUtils.EVENT_LOG_TIMESTAMP_OUT_OF_RANGE_CODE;
 import static org.folio.util.LoginConfigUtils.PW_CONFIG_PROXY_STORY_ADDRESS;
 import static org.folio.util.LoginConfigUtils.VALUE_IS_NOT_FOUND;
 import static org.folio.util.LoginConfigUtils.createFutureResponse;
@@ -100,6 +119,14 @@ public class LoginAPI implements Authn {
   private static final String MESSAGE_LOG_CONFIGURATION_IS_DISABLED = "Logging settings are disabled";
   private static final String MESSAGE_LOG_EVENT_IS_DISABLED = "For event logging `%s` is disabled";
   private static final String ERROR_EVENT_CONFIG_NOT_FOUND = "Event Config with `%s`: `%s` was not found in the db";
+  private static final SingleFlight<JsonObject> userLookups = new SingleFlight<>();
+  private static final SingleFlight<Pair<Credential, Integer>> credentialFetches = new SingleFlight<>();
+  private static final String CREDENTIAL_WITH_ATTEMPTS_SQL = "SELECT credentials.jsonb::text, "
+    + "(attempts.jsonb->>'attemptCount')::int FROM %s credentials "
+    + "LEFT JOIN %s attempts ON attempts.jsonb->>'userId' = credentials.jsonb->>'userId' "
+    + "WHERE credentials.jsonb->>'userId' = '%s' LIMIT 1";
+  private static final String CREDENTIALS_AFTER_SQL = "SELECT _id::text, jsonb::text FROM %s "
+    + "WHERE _id > '%s' ORDER BY _id LIMIT %d";
   private AuthUtil authUtil = new AuthUtil();
   private boolean suppressErrorResponse = false;
   private boolean requireActiveUser = Boolean.parseBoolean(MODULE_SPECIFIC_ARGS
@@ -111,7 +138,6 @@ public class LoginAPI implements Authn {
 
   private String vTenantId;
   private LogStorageService logStorageService;
-  private ConfigurationService configurationService;
   private PasswordStorageService passwordStorageService;
 
   public LoginAPI(Vertx vertx, String tenantId) {
@@ -122,7 +148,6 @@ public class LoginAPI implements Authn {
   private void initService(Vertx vertx) {
     this.passwordStorageService = PasswordStorageService.createProxy(vertx, PW_CONFIG_PROXY_STORY_ADDRESS);
     this.logStorageService = LogStorageService.createProxy(vertx, EVENT_CONFIG_PROXY_STORY_ADDRESS);
-    this.configurationService = ConfigurationService.createProxy(vertx, EVENT_CONFIG_PROXY_CONFIG_ADDRESS);
   }
 
   private String getErrorResponse(String response) {
@@ -139,6 +164,17 @@ public class LoginAPI implements Authn {
         new Offset(offset));
   }
 
+  /**
+   * @param query - CQL query of the credentials, may be null
+   * @return - WHERE clause of the query without limit and offset, empty for no query
+   */
+  private String getWhereClause(String query) throws org.z3950.zing.cql.cql2pgjson.FieldException {
+    if(query == null) {
+      return "";
+    }
+    return new CQLWrapper(new CQL2PgJSON(TABLE_NAME_CREDENTIALS + ".jsonb"), query).toString();
+  }
+
   private String getTenant(Map<String, String> headers) {
     return TenantTool.calculateTenantId(headers.get(OKAPI_TENANT_HEADER));
   }
@@ -149,18 +185,82 @@ public class LoginAPI implements Authn {
   */
   private Future<JsonObject> lookupUser(String username, String userId, String tenant,
       final String okapiURL, String requestToken, Vertx vertx) {
+    if(username == null && userId == null) {
+      return Future.failedFuture("Need a valid username or userId to query");
+    }
+    UserCache userCache = UserCache.getInstance();
+    UserCache.Lookup cachedUser = userCache.get(tenant, username, userId);
+    if(cachedUser != null) {
+      return cachedUser.isMissing()
+        ? Future.failedFuture("No user found by username " + username)
+        : Future.succeededFuture(cachedUser.getUser());
+    }
+    String flightKey = tenant + (username != null ? ":username:" + username : ":id:" + userId);
+    return userLookups.execute(flightKey, () -> fetchUser(username, userId, tenant, okapiURL, requestToken, vertx))
+      .map(JsonObject::copy);
+  }
+
+  /*
+    Fetch the credentials of the user together with the failed login attempts count
+    (null if the user has no attempts record) in one statement,
+    concurrent fetches for the same user share one query
+  */
+  private Future<Pair<Credential, Integer>> getCredentialWithAttempts(String userId, String tenantId, Vertx vertx) {
+    return credentialFetches.execute(tenantId + ":" + userId, () -> {
+      Future<ResultSet> future = Future.future();
+      String schema = PostgresClient.convertToPsqlStandard(tenantId);
+      String sql = String.format(CREDENTIAL_WITH_ATTEMPTS_SQL, schema + "." + TABLE_NAME_CREDENTIALS,
+        schema + "." + TABLE_NAME_LOGIN_ATTEMPTS, userId.replace("'", "''"));
+      PostgresClient.getInstance(vertx, tenantId).select(sql, future.completer());
+      return future.map(resultSet -> {
+        if(resultSet.getResults().isEmpty()) {
+          return null;
+        }
+        JsonArray row = resultSet.getResults().get(0);
+        return Pair.of(new JsonObject(row.getString(0)).mapTo(Credential.class), row.getInteger(1));
+      });
+    });
+  }
+
+  /**
+   * Keyset pagination over the primary key: each page is an index range scan starting right after the given id,
+   * so its cost does not grow with the position in the table and no total count is calculated
+   *
+   * @param after    - id of the last credentials of the previous page
+   * @param length   - page size
+   * @param tenantId - tenant id
+   * @param vertx    - vertx instance
+   * @return - page of credentials, with nextAfter set unless it is the last page
+   */
+  private Future<CredentialsListObject> getCredentialsAfter(UUID after, int length, String tenantId, Vertx vertx) {
+    Future<ResultSet> future = Future.future();
+    String table = PostgresClient.convertToPsqlStandard(tenantId) + "." + TABLE_NAME_CREDENTIALS;
+    // one extra row tells whether there is a next page
+    String sql = String.format(CREDENTIALS_AFTER_SQL, table, after, length + 1);
+    PostgresClient.getInstance(vertx, tenantId).select(sql, future.completer());
+    return future.map(resultSet -> {
+      List<JsonArray> rows = resultSet.getResults();
+      List<Credential> credentials = new ArrayList<>(Math.min(rows.size(), length));
+      for(JsonArray row : rows.subList(0, Math.min(rows.size(), length))) {
+        credentials.add(new JsonObject(row.getString(1)).mapTo(Credential.class));
+      }
+      CredentialsListObject page = new CredentialsListObject().withCredentials(credentials);
+      if(rows.size() > length) {
+        page.setNextAfter(rows.get(length - 1).getString(0));
+      }
+      return page;
+    });
+  }
+
+  private Future<JsonObject> fetchUser(String username, String userId, String tenant,
+      final String okapiURL, String requestToken, Vertx vertx) {
     Future<JsonObject> future = Future.future();
-    HttpClientOptions options = new HttpClientOptions();
-    options.setConnectTimeout(lookupTimeout);
-    options.setIdleTimeout(lookupTimeout);
-    HttpClient client = vertx.createHttpClient(options);
+    HttpClient client = HttpClientRegistry.getClient(vertx);
+    UserCache userCache = UserCache.getInstance();
     String requestURL = null;
     if(requestToken == null) {
       requestToken = "";
     }
-    if(username == null && userId == null) {
-      return Future.failedFuture("Need a valid username or userId to query");
-    }
     try {
       if(username != null) {
         requestURL = String.format("%s/users?query=username==%s", okapiURL,
@@ -202,9 +302,12 @@ public class LoginAPI implements Authn {
                   future.fail("Bad results from username");
                 } else if(recordCount == 0) {
                   logger.error("No user found by username " + username);
+                  userCache.putMissing(tenant, username, userId);
                   future.fail("No user found by username " + username);
                 } else {
-                  future.complete(resultObject.getJsonArray("users").getJsonObject(0));
+                  JsonObject user = resultObject.getJsonArray("users").getJsonObject(0);
+                  userCache.put(tenant, user);
+                  future.complete(user);
                 }
               }
             } catch(Exception e) {
@@ -227,7 +330,7 @@ public class LoginAPI implements Authn {
   private Future<String> fetchToken(JsonObject payload, String tenant,
       String okapiURL, String requestToken, Vertx vertx) {
     Future<String> future = Future.future();
-    HttpClient client = vertx.createHttpClient();
+    HttpClient client = HttpClientRegistry.getClient(vertx);
     HttpClientRequest request = client.postAbs(okapiURL + "/token");
 
     request.putHeader(OKAPI_TENANT_HEADER, tenant)
@@ -269,7 +372,7 @@ public class LoginAPI implements Authn {
   private Future<String> fetchRefreshToken(String userId, String sub, String tenant,
       String okapiURL, String requestToken, Vertx vertx) {
     Future<String> future = Future.future();
-    HttpClient client = vertx.createHttpClient();
+    HttpClient client = HttpClientRegistry.getClient(vertx);
     HttpClientRequest request = client.postAbs(okapiURL + "/refreshtoken");
     request.putHeader(OKAPI_TENANT_HEADER, tenant)
       .putHeader(OKAPI_TOKEN_HEADER, requestToken)
@@ -308,7 +411,22 @@ public class LoginAPI implements Authn {
         String tenantId = getTenant(okapiHeaders);
         try {
           testForFile(LOGIN_ATTEMPTS_SCHEMA_PATH);
-          PostgresClient.getInstance(vertxContext.owner(), tenantId).get(TABLE_NAME_LOGIN_ATTEMPTS, LoginAttempts.class, buildCriteriaForUserAttempts(id), true,  getReply -> {
+          PostgresClient pgClient = PostgresClient.getInstance(vertxContext.owner(), tenantId);
+          LoginAttemptsStore attemptsStore = LoginAttemptsStore.getInstance();
+          if(attemptsStore.isEnabled()) {
+            attemptsStore.get(id, tenantId, pgClient).setHandler(getReply -> {
+              if(getReply.failed()) {
+                logger.debug("Error in PostgresClient get operation: " + getReply.cause().getLocalizedMessage());
+                asyncResultHandler.handle(Future.succeededFuture(GetAuthnLoginAttemptsByIdResponse.respond500WithTextPlain(INTERNAL_ERROR)));
+              } else if(getReply.result() == null) {
+                asyncResultHandler.handle(Future.succeededFuture(GetAuthnLoginAttemptsByIdResponse.respond404WithTextPlain("No user login attempts for id " + id + " found")));
+              } else {
+                asyncResultHandler.handle(Future.succeededFuture(GetAuthnLoginAttemptsByIdResponse.respond200WithApplicationJson(getReply.result())));
+              }
+            });
+            return;
+          }
+          pgClient.get(TABLE_NAME_LOGIN_ATTEMPTS, LoginAttempts.class, buildCriteriaForUserAttempts(id), true,  getReply -> {
             if(getReply.failed()) {
               logger.debug("Error in PostgresClient get operation: " + getReply.cause().getLocalizedMessage());
               asyncResultHandler.handle(Future.succeededFuture(GetAuthnLoginAttemptsByIdResponse.respond500WithTextPlain(INTERNAL_ERROR)));
@@ -360,6 +478,12 @@ public class LoginAPI implements Authn {
               .respond400WithTextPlain("You must provide a password")));
           return;
         }
+        if(requireActiveUser && UserLockouts.getInstance().isLocked(tenantId, entity.getUsername(), entity.getUserId())) {
+          logger.error("User is locked out after too many failed login attempts");
+          asyncResultHandler.handle(Future.succeededFuture(PostAuthnLoginResponse
+              .respond400WithTextPlain(getErrorResponse("User must be flagged as active"))));
+          return;
+        }
         if(entity.getUserId() != null && !requireActiveUser) {
           logger.debug("No need to look up user id");
           userVerified = Future.succeededFuture(new JsonObject()
@@ -412,13 +536,7 @@ public class LoginAPI implements Authn {
                   return;
                 }
               }
-              Criteria useridCrit = new Criteria(CREDENTIAL_SCHEMA_PATH);
-              useridCrit.addField(CREDENTIAL_USERID_FIELD);
-              useridCrit.setOperation(Criteria.OP_EQUAL);
-              useridCrit.setValue(userObject.getString("id"));
-              PostgresClient.getInstance(vertxContext.owner(), tenantId).get(
-                  TABLE_NAME_CREDENTIALS, Credential.class, new Criterion(useridCrit),
-                  true, getReply-> {
+              getCredentialWithAttempts(userObject.getString("id"), tenantId, vertxContext.owner()).setHandler(getReply -> {
                 if(getReply.failed()) {
                   logger.error("Error in postgres get operation: " +
                       getReply.cause().getLocalizedMessage());
@@ -427,12 +545,12 @@ public class LoginAPI implements Authn {
                       INTERNAL_ERROR)));
                 } else {
                   try {
-                    List<Credential> credList = getReply.result().getResults();
-                    if(credList.size() < 1) {
+                    if(getReply.result() == null) {
                       logger.error("No matching credentials found for userid " + userObject.getString("id"));
                       asyncResultHandler.handle(Future.succeededFuture(PostAuthnLoginResponse.respond400WithTextPlain("No credentials match that login")));
                     } else {
-                      Credential userCred = credList.get(0);
+                      Credential userCred = getReply.result().getLeft();
+                      Integer attemptCount = getReply.result().getRight();
                       if(userCred.getHash() == null || userCred.getSalt() == null) {
                         String message = "Error retrieving stored hash and salt from credentials";
                         logger.error(message);
@@ -440,66 +558,83 @@ public class LoginAPI implements Authn {
                         return;
                       }
                       logger.debug("Testing hash for credentials for user with id '" + userObject.getString("id") + "'");
-                      String testHash = authUtil.calculateHash(entity.getPassword(), userCred.getSalt());
-                      String sub;
-                      if(userCred.getHash().equals(testHash)) {
-                        JsonObject payload = new JsonObject();
-                        if(userObject.containsKey("username")) {
-                          sub = userObject.getString("username");
-                        } else {
-                          sub = userObject.getString("id");
-                        }
-                        payload.put("sub", sub);
-                        if(!userObject.isEmpty()) {
-                          payload.put("user_id", userObject.getString("id"));
+                      HashDescriptor hashDescriptor = HashDescriptor.parse(userCred.getHashDescriptor());
+                      authUtil.calculateHashAsync(entity.getPassword(), userCred.getSalt(), hashDescriptor).setHandler(hashResult -> {
+                        if(hashResult.failed()) {
+                          String message = "Error calculating hash: " + hashResult.cause().getLocalizedMessage();
+                          logger.error(message, hashResult.cause());
+                          asyncResultHandler.handle(Future.succeededFuture(PostAuthnLoginResponse.respond500WithTextPlain(INTERNAL_ERROR)));
+                          return;
                         }
-                        Future<String> fetchTokenFuture;
-                        Future<String> fetchRefreshTokenFuture;
-                        Object fetchTokenFlag = RestVerticle.MODULE_SPECIFIC_ARGS.get("fetch.token");
-                        if(fetchTokenFlag != null && ((String)fetchTokenFlag).equals("no")) {
-                          fetchTokenFuture = Future.succeededFuture("dummytoken");
-                        } else {
-                          logger.debug("Fetching token from authz with payload " + payload.encode());
-                          fetchTokenFuture = fetchToken(payload, tenantId, okapiURL, requestToken, vertxContext.owner());
-                        }
-                        fetchRefreshTokenFuture = fetchRefreshToken(userObject.getString("id"),
-                            sub, tenantId, okapiURL, requestToken, vertxContext.owner());
-                        CompositeFuture compositeFuture = CompositeFuture.join(fetchTokenFuture,
-                            fetchRefreshTokenFuture);
-
-                        compositeFuture.setHandler(fetchTokenRes -> {
-                          if(fetchTokenFuture.failed()) {
-                            String errMsg = "Error fetching token: " + fetchTokenFuture.cause().getLocalizedMessage();
-                            logger.error(errMsg);
-                            asyncResultHandler.handle(Future.succeededFuture(PostAuthnLoginResponse.respond500WithTextPlain(getErrorResponse(errMsg))));
+                        String testHash = hashResult.result();
+                        String sub;
+                        if(userCred.getHash().equals(testHash)) {
+                          rehashIfOutdated(userCred, entity.getPassword(), hashDescriptor, tenantId, vertxContext.owner());
+                          JsonObject payload = new JsonObject();
+                          if(userObject.containsKey("username")) {
+                            sub = userObject.getString("username");
+                          } else {
+                            sub = userObject.getString("id");
+                          }
+                          payload.put("sub", sub);
+                          if(!userObject.isEmpty()) {
+                            payload.put("user_id", userObject.getString("id"));
+                          }
+                          Future<String> fetchTokenFuture;
+                          Future<String> fetchRefreshTokenFuture;
+                          Object fetchTokenFlag = RestVerticle.MODULE_SPECIFIC_ARGS.get("fetch.token");
+                          if(fetchTokenFlag != null && ((String)fetchTokenFlag).equals("no")) {
+                            fetchTokenFuture = Future.succeededFuture("dummytoken");
                           } else {
-                            String refreshToken = null;
-                            if(fetchRefreshTokenFuture.failed()) {
-                              logger.error(String.format("Error getting refresh token: %s",
-                                  fetchRefreshTokenFuture.cause().getLocalizedMessage()));
+                            logger.debug("Fetching token from authz with payload " + payload.encode());
+                            fetchTokenFuture = fetchToken(payload, tenantId, okapiURL, requestToken, vertxContext.owner());
+                          }
+                          fetchRefreshTokenFuture = fetchRefreshToken(userObject.getString("id"),
+                              sub, tenantId, okapiURL, requestToken, vertxContext.owner());
+                          CompositeFuture compositeFuture = CompositeFuture.join(fetchTokenFuture,
+                              fetchRefreshTokenFuture);
+
+                          compositeFuture.setHandler(fetchTokenRes -> {
+                            if(fetchTokenFuture.failed()) {
+                              String errMsg = "Error fetching token: " + fetchTokenFuture.cause().getLocalizedMessage();
+                              logger.error(errMsg);
+                              asyncResultHandler.handle(Future.succeededFuture(PostAuthnLoginResponse.respond500WithTextPlain(getErrorResponse(errMsg))));
                             } else {
-                              refreshToken = fetchRefreshTokenFuture.result();
+                              String refreshToken = null;
+                              if(fetchRefreshTokenFuture.failed()) {
+                                logger.error(String.format("Error getting refresh token: %s",
+                                    fetchRefreshTokenFuture.cause().getLocalizedMessage()));
+                              } else {
+                                refreshToken = fetchRefreshTokenFuture.result();
+                              }
+                              final String finalRefreshToken = refreshToken;
+                              PostgresClient pgClient = PostgresClient.getInstance(vertxContext.owner(), tenantId);
+                                // after succesfull login skip login attempts counter
+                              onLoginSuccessAttempt(userObject, tenantId, attemptCount, pgClient).setHandler(resetResult -> {
+                                if(resetResult.failed()) {
+                                  String message = "Saving record failed: " + resetResult.cause().getLocalizedMessage();
+                                  logger.error(message, resetResult.cause());
+                                  asyncResultHandler.handle(Future.succeededFuture(
+                                    PostAuthnLoginResponse.respond500WithTextPlain(message)));
+                                  return;
+                                }
+                                //Append token as header to result
+                                String authToken = fetchTokenFuture.result();
+                                asyncResultHandler.handle(Future.succeededFuture(
+                                  PostAuthnLoginResponse.respond201WithApplicationJson(entity,
+                                    PostAuthnLoginResponse.headersFor201().withXOkapiToken(authToken)
+                                      .withRefreshtoken(finalRefreshToken))));
+                              });
                             }
-                            PostgresClient pgClient = PostgresClient.getInstance(vertxContext.owner(), tenantId);
-                              // after succesfull login skip login attempts counter
-                            getLoginAttemptsByUserId(userObject.getString("id"), pgClient, asyncResultHandler,
-                                onLoginSuccessAttemptHandler(userObject, pgClient, asyncResultHandler));
-                            //Append token as header to result
-                            String authToken = fetchTokenFuture.result();
-                            asyncResultHandler.handle(Future.succeededFuture(
-                              PostAuthnLoginResponse.respond201WithApplicationJson(entity,
-                                PostAuthnLoginResponse.headersFor201().withXOkapiToken(authToken)
-                                  .withRefreshtoken(refreshToken))));
-                          }
-                        });
-                      } else {
-                        PostgresClient pgClient = PostgresClient.getInstance(vertxContext.owner(), tenantId);
-                        OkapiConnectionParams params = new OkapiConnectionParams(okapiURL, tenantId, requestToken, vertxContext.owner(), null);
+                          });
+                        } else {
+                          PostgresClient pgClient = PostgresClient.getInstance(vertxContext.owner(), tenantId);
+                          OkapiConnectionParams params = new OkapiConnectionParams(okapiURL, tenantId, requestToken, vertxContext.owner(), null);
 
-                        getLoginAttemptsByUserId(userObject.getString("id"), pgClient, asyncResultHandler,
-                          onLoginFailAttemptHandler(userObject, params, pgClient, asyncResultHandler));
-                        logger.error("Password does not match for userid " + userCred.getUserId());
-                      }
+                          onLoginFailAttempt(userObject, params, pgClient, asyncResultHandler);
+                          logger.error("Password does not match for userid " + userCred.getUserId());
+                        }
+                      });
                     }
                   } catch(Exception e) {
                     String message = e.getLocalizedMessage();
@@ -524,27 +659,45 @@ public class LoginAPI implements Authn {
   }
 
   @Override
-  public void getAuthnCredentials(int length, int start, String sortBy, String query,
-      Map<String, String> okapiHeaders, Handler<AsyncResult<Response>> asyncResultHandler,
+  public void getAuthnCredentials(int length, int start, String sortBy, String query, String after,
+      String totalRecords, Map<String, String> okapiHeaders, Handler<AsyncResult<Response>> asyncResultHandler,
       Context vertxContext) {
+    if(after != null) {
+      getAuthnCredentialsAfter(length, start, sortBy, query, after, okapiHeaders, asyncResultHandler, vertxContext);
+      return;
+    }
     try {
        vertxContext.runOnContext(v -> {
          String tenantId = getTenant(okapiHeaders);
          String[] fieldList = {"*"};
          try {
            CQLWrapper cql = getCQL(query, length, start - 1);
-           PostgresClient.getInstance(vertxContext.owner(), tenantId).get(
-                   TABLE_NAME_CREDENTIALS, Credential.class, fieldList, cql, true, false, getReply -> {
+           String where = getWhereClause(query);
+           TotalRecords totalRecordsMode = TotalRecords.parse(totalRecords);
+           boolean exactCount = totalRecordsMode == TotalRecords.EXACT;
+           PostgresClient pgClient = PostgresClient.getInstance(vertxContext.owner(), tenantId);
+           pgClient.get(TABLE_NAME_CREDENTIALS, Credential.class, fieldList, cql, exactCount, false, getReply -> {
              if(getReply.failed()) {
                logger.debug("Error in PostgresClient get operation " + getReply.cause().getLocalizedMessage());
                asyncResultHandler.handle(Future.succeededFuture(GetAuthnCredentialsResponse.respond500WithTextPlain(INTERNAL_ERROR)));
-             } else {
+               return;
+             }
+             List<Credential> credentialList = getReply.result().getResults();
+             Future<Integer> total = exactCount
+               ? Future.succeededFuture(getReply.result().getResultInfo().getTotalRecords())
+               : totalRecordsMode.total(pgClient, PostgresClient.convertToPsqlStandard(tenantId) + "." + TABLE_NAME_CREDENTIALS,
+                   where, start - 1, length, credentialList.size());
+             total.setHandler(totalReply -> {
+               if(totalReply.failed()) {
+                 logger.error("Error calculating the total of credentials: " + totalReply.cause().getLocalizedMessage());
+                 asyncResultHandler.handle(Future.succeededFuture(GetAuthnCredentialsResponse.respond500WithTextPlain(INTERNAL_ERROR)));
+                 return;
+               }
                CredentialsListObject credentialsListObject = new CredentialsListObject();
-               List<Credential> credentialList = getReply.result().getResults();
                credentialsListObject.setCredentials(credentialList);
-               credentialsListObject.setTotalRecords(getReply.result().getResultInfo().getTotalRecords());
+               credentialsListObject.setTotalRecords(totalReply.result());
                asyncResultHandler.handle(Future.succeededFuture(GetAuthnCredentialsResponse.respond200WithApplicationJson(credentialsListObject)));
-             }
+             });
            });
          } catch(Exception e) {
            logger.debug("Error invoking Postgresclient: "+ e.getLocalizedMessage());
@@ -562,6 +715,69 @@ public class LoginAPI implements Authn {
     }
   }
 
+  private void getAuthnCredentialsAfter(int length, int start, String sortBy, String query, String after,
+      Map<String, String> okapiHeaders, Handler<AsyncResult<Response>> asyncResultHandler,
+      Context vertxContext) {
+    if(start != 1 || sortBy != null || query != null) {
+      asyncResultHandler.handle(Future.succeededFuture(GetAuthnCredentialsResponse.respond400WithTextPlain(
+        "after cannot be combined with start, sortBy or query")));
+      return;
+    }
+    UUID afterId;
+    try {
+      afterId = UUID.fromString(after);
+    } catch(IllegalArgumentException e) {
+      asyncResultHandler.handle(Future.succeededFuture(GetAuthnCredentialsResponse.respond400WithTextPlain(
+        "after must be a UUID: " + after)));
+      return;
+    }
+    getCredentialsAfter(afterId, length, getTenant(okapiHeaders), vertxContext.owner()).setHandler(getReply -> {
+      if(getReply.failed()) {
+        logger.error("Error reading credentials after " + after + ": " + getReply.cause().getLocalizedMessage());
+        asyncResultHandler.handle(Future.succeededFuture(GetAuthnCredentialsResponse.respond500WithTextPlain(INTERNAL_ERROR)));
+      } else {
+        asyncResultHandler.handle(Future.succeededFuture(GetAuthnCredentialsResponse.respond200WithApplicationJson(getReply.result())));
+      }
+    });
+  }
+
+  /**
+   * Bulk import of credentials from newline delimited JSON, see {@link CredentialsImporter}
+   */
+  @Override
+  public void postAuthnCredentialsImport(InputStream entity, Map<String, String> okapiHeaders,
+      Handler<AsyncResult<Response>> asyncResultHandler, Context vertxContext) {
+    try {
+      if(entity == null) {
+        asyncResultHandler.handle(Future.succeededFuture(
+          PostAuthnCredentialsImportResponse.respond400WithTextPlain("Import body is empty")));
+        return;
+      }
+      String tenantId = getTenant(okapiHeaders);
+      BufferedReader reader = new BufferedReader(new InputStreamReader(entity, StandardCharsets.UTF_8));
+      new CredentialsImporter(PostgresClient.getInstance(vertxContext.owner(), tenantId), tenantId,
+        okapiHeaders.get(OKAPI_USER_ID_HEADER))
+        .importCredentials(reader)
+        .setHandler(importResult -> {
+          if(importResult.failed()) {
+            String message = "Error importing credentials: " + importResult.cause().getLocalizedMessage();
+            logger.error(message, importResult.cause());
+            asyncResultHandler.handle(Future.succeededFuture(
+              PostAuthnCredentialsImportResponse.respond500WithTextPlain(INTERNAL_ERROR)));
+          } else {
+            logger.info("Imported credentials of tenant " + tenantId + ": " + importResult.result().getCreated()
+              + " created, " + importResult.result().getFailed() + " failed");
+            asyncResultHandler.handle(Future.succeededFuture(
+              PostAuthnCredentialsImportResponse.respond200WithApplicationJson(importResult.result())));
+          }
+        });
+    } catch(Exception e) {
+      logger.error("Error importing credentials: " + e.getLocalizedMessage(), e);
+      asyncResultHandler.handle(Future.succeededFuture(
+        PostAuthnCredentialsImportResponse.respond500WithTextPlain(INTERNAL_ERROR)));
+    }
+  }
+
   @Override
   public void postAuthnCredentials(LoginCredentials entity,
       Map<String, String> okapiHeaders,
@@ -614,29 +830,35 @@ public class LoginAPI implements Authn {
                             CREDENTIAL_USERID_FIELD, userOb.getString("id"), message))));
                       } else {
                         //Now we can create a new Credential
-                        Credential credential = new Credential();
-                        credential.setId(UUID.randomUUID().toString());
-                        credential.setUserId(userOb.getString("id"));
-                        credential.setSalt(authUtil.getSalt());
-                        credential.setHash(authUtil.calculateHash(entity.getPassword(),
-                            credential.getSalt()));
-                        //And save it
-                        PostgresClient pgClient = PostgresClient.getInstance(
-                            vertxContext.owner(), tenantId);
-                        pgClient.save(TABLE_NAME_CREDENTIALS, credential.getId(),
-                            credential, saveReply -> {
-                          if(saveReply.failed()) {
-                            String message = "Saving record failed: "
-                                + saveReply.cause().getLocalizedMessage();
-                            logger.error(message, saveReply.cause());
+                        makeCredentialObject(UUID.randomUUID().toString(), userOb.getString("id"),
+                            entity.getPassword(), tenantId).setHandler(makeCredReply -> {
+                          if(makeCredReply.failed()) {
+                            String message = "Creating credential failed: "
+                                + makeCredReply.cause().getLocalizedMessage();
+                            logger.error(message, makeCredReply.cause());
                             asyncResultHandler.handle(Future.succeededFuture(
-                                PostAuthnCredentialsResponse
-                                .respond500WithTextPlain(message)));
-                          } else {
-                            asyncResultHandler.handle(Future.succeededFuture(
-                                PostAuthnCredentialsResponse
-                                  .respond201WithApplicationJson(credential)));
+                                PostAuthnCredentialsResponse.respond500WithTextPlain(message)));
+                            return;
                           }
+                          Credential credential = makeCredReply.result();
+                          //And save it
+                          PostgresClient pgClient = PostgresClient.getInstance(
+                              vertxContext.owner(), tenantId);
+                          pgClient.save(TABLE_NAME_CREDENTIALS, credential.getId(),
+                              credential, saveReply -> {
+                            if(saveReply.failed()) {
+                              String message = "Saving record failed: "
+                                  + saveReply.cause().getLocalizedMessage();
+                              logger.error(message, saveReply.cause());
+                              asyncResultHandler.handle(Future.succeededFuture(
+                                  PostAuthnCredentialsResponse
+                                  .respond500WithTextPlain(message)));
+                            } else {
+                              asyncResultHandler.handle(Future.succeededFuture(
+                                  PostAuthnCredentialsResponse
+                                    .respond201WithApplicationJson(credential)));
+                            }
+                          });
                         });
                       }
                     }
@@ -686,22 +908,30 @@ public class LoginAPI implements Authn {
               } else {
                 Credential cred = credList.get(0);
                 String newSalt = authUtil.getSalt();
-                String newHash = authUtil.calculateHash(entity.getPassword(), newSalt);
-                cred.setHash(newHash);
-                cred.setSalt(newSalt);
-                try {
-                  PostgresClient.getInstance(vertxContext.owner(), tenantId).update(TABLE_NAME_CREDENTIALS, cred, new Criterion(idCrit), true, putReply -> {
-                    if(putReply.failed()) {
-                      logger.debug("Error with PostgresClient update operation: " + putReply.cause().getLocalizedMessage());
-                      asyncResultHandler.handle(Future.succeededFuture(PutAuthnCredentialsByIdResponse.respond500WithTextPlain(INTERNAL_ERROR)));
-                    } else {
-                     asyncResultHandler.handle(Future.succeededFuture(PutAuthnCredentialsByIdResponse.respond200WithApplicationJson(entity)));
-                    }
-                  });
-                } catch(Exception e) {
-                  logger.debug("Error with PostgresClient: " + e.getLocalizedMessage());
-                  asyncResultHandler.handle(Future.succeededFuture(PutAuthnCredentialsByIdResponse.respond500WithTextPlain(INTERNAL_ERROR)));
-                }
+                HashDescriptor hashDescriptor = HashEngines.getTargetDescriptor(tenantId);
+                authUtil.calculateHashAsync(entity.getPassword(), newSalt, hashDescriptor).setHandler(hashResult -> {
+                  if(hashResult.failed()) {
+                    logger.debug("Error calculating hash: " + hashResult.cause().getLocalizedMessage());
+                    asyncResultHandler.handle(Future.succeededFuture(PutAuthnCredentialsByIdResponse.respond500WithTextPlain(INTERNAL_ERROR)));
+                    return;
+                  }
+                  cred.setHash(hashResult.result());
+                  cred.setSalt(newSalt);
+                  cred.setHashDescriptor(hashDescriptor.toString());
+                  try {
+                    PostgresClient.getInstance(vertxContext.owner(), tenantId).update(TABLE_NAME_CREDENTIALS, cred, new Criterion(idCrit), true, putReply -> {
+                      if(putReply.failed()) {
+                        logger.debug("Error with PostgresClient update operation: " + putReply.cause().getLocalizedMessage());
+                        asyncResultHandler.handle(Future.succeededFuture(PutAuthnCredentialsByIdResponse.respond500WithTextPlain(INTERNAL_ERROR)));
+                      } else {
+                       asyncResultHandler.handle(Future.succeededFuture(PutAuthnCredentialsByIdResponse.respond200WithApplicationJson(entity)));
+                      }
+                    });
+                  } catch(Exception e) {
+                    logger.debug("Error with PostgresClient: " + e.getLocalizedMessage());
+                    asyncResultHandler.handle(Future.succeededFuture(PutAuthnCredentialsByIdResponse.respond500WithTextPlain(INTERNAL_ERROR)));
+                  }
+                });
               }
             }
           });
@@ -801,6 +1031,56 @@ public class LoginAPI implements Authn {
     }
   }
 
+  /**
+   * Returns the hash settings new credentials of the tenant are created with
+   * and the result of the startup calibration (hash.target.ms)
+   */
+  @Override
+  public void getAuthnHashCalibration(Map<String, String> okapiHeaders,
+                                      Handler<AsyncResult<Response>> asyncResultHandler, Context vertxContext) {
+    try {
+      HashDescriptor hashDescriptor = HashEngines.getTargetDescriptor(getTenant(okapiHeaders));
+      HashCalibration hashCalibration = new HashCalibration()
+        .withHashDescriptor(hashDescriptor.toString())
+        .withIterations(hashDescriptor.getIterations())
+        .withHashPoolSize(HashingExecutor.getInstance().getPoolSize())
+        .withCalibrated(false);
+      HashCalibrator.Calibration calibration = HashCalibrator.getCalibration();
+      if(calibration != null) {
+        hashCalibration
+          .withCalibrated(true)
+          .withTargetMillis((int) calibration.getTargetMillis())
+          .withMeasuredMillis(calibration.getMeasuredMillis())
+          .withHashesPerSecond(calibration.getHashesPerSecond())
+          .withCalibrationDate(calibration.getDate());
+      }
+      asyncResultHandler.handle(Future.succeededFuture(
+        GetAuthnHashCalibrationResponse.respond200WithApplicationJson(hashCalibration)));
+    } catch(Exception e) {
+      logger.error("Error getting hash calibration: " + e.getLocalizedMessage(), e);
+      asyncResultHandler.handle(Future.succeededFuture(
+        GetAuthnHashCalibrationResponse.respond500WithTextPlain(INTERNAL_ERROR)));
+    }
+  }
+
+  /**
+   * Returns the runtime metrics of this module instance
+   */
+  @Override
+  public void getAuthnMetrics(Map<String, String> okapiHeaders,
+                              Handler<AsyncResult<Response>> asyncResultHandler, Context vertxContext) {
+    try {
+      Metrics metrics = new JsonObject()
+        .put("hashing", HashingExecutor.getInstance().getMetrics())
+        .put("okapiHttpClient", HttpClientRegistry.getInstance(vertxContext.owner()).getMetrics())
+        .mapTo(Metrics.class);
+      asyncResultHandler.handle(Future.succeededFuture(GetAuthnMetricsResponse.respond200WithApplicationJson(metrics)));
+    } catch(Exception e) {
+      logger.error("Error getting metrics: " + e.getLocalizedMessage(), e);
+      asyncResultHandler.handle(Future.succeededFuture(GetAuthnMetricsResponse.respond500WithTextPlain(INTERNAL_ERROR)));
+    }
+  }
+
   /**
    * This method is /authn/password/repeatable endpoint implementation
    * which is used by programmatic rule of mod-password-validator.
@@ -942,27 +1222,21 @@ public class LoginAPI implements Authn {
   }
 
   @Override
-  public void getAuthnLogEvents(int limit, int offset, String query,
+  public void getAuthnLogEvents(int limit, int offset, String query, String totalRecords,
                                 Map<String, String> requestHeaders,
                                 Handler<AsyncResult<Response>> asyncHandler, Context context) {
     try {
-      JsonObject headers = JsonObject.mapFrom(requestHeaders);
       context.runOnContext(contextHandler ->
-        configurationService.getEnableConfigurations(vTenantId, headers, serviceHandler -> {
-          if (serviceHandler.failed()) {
-            String errorMessage = serviceHandler.cause().getMessage();
-            asyncHandler.handle(createFutureResponse(
-              GetAuthnLogEventsResponse.respond500WithTextPlain(errorMessage)));
-            return;
-          }
-          ConfigResponse responseEntity = getResponseEntity(serviceHandler, ConfigResponse.class);
-          if (!responseEntity.getEnabled()) {
+        getLoginPolicy(requestHeaders, context).setHandler(policyHandler -> {
+          // the login policy lookup never fails, event logging is disabled when it could not be loaded
+          LoginPolicy loginPolicy = policyHandler.result();
+          if (!loginPolicy.isEventLogEnabled()) {
             asyncHandler.handle(createFutureResponse(
               GetAuthnLogEventsResponse.respond204WithTextPlain(MESSAGE_LOG_CONFIGURATION_IS_DISABLED)));
             return;
           }
 
-          logStorageService.findAllEvents(vTenantId, limit, offset, query,
+          logStorageService.findAllEvents(vTenantId, limit, offset, query, totalRecords,
             storageHandler -> {
               if (storageHandler.failed()) {
                 String errorMessage = storageHandler.cause().getMessage();
@@ -984,44 +1258,51 @@ public class LoginAPI implements Authn {
   }
 
   @Override
-  public void postAuthnLogEvents(LogEvent logEvent, Map<String, String> requestHeaders,
+  public void postAuthnLogEvents(boolean async, LogEvent logEvent, Map<String, String> requestHeaders,
                                  Handler<AsyncResult<Response>> asyncHandler, Context context) {
     try {
-      JsonObject headers = JsonObject.mapFrom(requestHeaders);
       context.runOnContext(contextHandler ->
-        configurationService.getEnableConfigurations(vTenantId, headers, serviceHandler -> {
-          if (serviceHandler.failed()) {
-            String errorMessage = serviceHandler.cause().getMessage();
-            asyncHandler.handle(createFutureResponse(
-              PostAuthnLogEventsResponse.respond500WithTextPlain(errorMessage)));
-            return;
-          }
-          ConfigResponse responseEntity = getResponseEntity(serviceHandler, ConfigResponse.class);
-          if (!responseEntity.getEnabled()) {
+        getLoginPolicy(requestHeaders, context).setHandler(policyHandler -> {
+          // the login policy lookup never fails, event logging is disabled when it could not be loaded
+          LoginPolicy loginPolicy = policyHandler.result();
+          if (!loginPolicy.isEventLogEnabled()) {
             asyncHandler.handle(createFutureResponse(
               PostAuthnLogEventsResponse.respond204WithTextPlain(MESSAGE_LOG_CONFIGURATION_IS_DISABLED)));
             return;
           }
-          List<String> enableConfigCodes = responseEntity.getConfigs();
           String eventCode = logEvent.getEventCode();
-          if (!enableConfigCodes.contains(eventCode)) {
+          if (!loginPolicy.isEventEnabled(eventCode)) {
             asyncHandler.handle(createFutureResponse(
               PostAuthnLogEventsResponse.respond204WithTextPlain(String.format(MESSAGE_LOG_EVENT_IS_DISABLED, eventCode))));
             return;
           }
 
           JsonObject loggingEventJson = JsonObject.mapFrom(logEvent);
-          logStorageService.createEvent(vTenantId, loggingEventJson,
+          logStorageService.createEvent(vTenantId, loggingEventJson, async,
             storageHandler -> {
               if (storageHandler.failed()) {
-                String errorMessage = storageHandler.cause().getMessage();
+                Throwable cause = storageHandler.cause();
+                String errorMessage = cause.getMessage();
+                if (cause instanceof ReplyException
+                  && ((ReplyException) cause).failureCode() == EVENT_LOG_QUEUE_FULL_CODE) {
+                  asyncHandler.handle(createFutureResponse(
+                    PostAuthnLogEventsResponse.respond429WithTextPlain(errorMessage)));
+                  return;
+                }
+                if (cause instanceof ReplyException
+                  && ((ReplyException) cause).failureCode() == EVENT_LOG_TIMESTAMP_OUT_OF_RANGE_CODE) {
+                  asyncHandler.handle(createFutureResponse(
+                    PostAuthnLogEventsResponse.respond400WithTextPlain(errorMessage)));
+                  return;
+                }
                 asyncHandler.handle(createFutureResponse(
                   PostAuthnLogEventsResponse.respond500WithTextPlain(errorMessage)));
                 return;
               }
               LogResponse response = getResponseEntity(storageHandler, LogResponse.class);
-              asyncHandler.handle(createFutureResponse(
-                PostAuthnLogEventsResponse.respond201WithApplicationJson(response)));
+              asyncHandler.handle(createFutureResponse(async
+                ? PostAuthnLogEventsResponse.respond202WithApplicationJson(response)
+                : PostAuthnLogEventsResponse.respond201WithApplicationJson(response)));
             });
         })
       );
@@ -1036,17 +1317,11 @@ public class LoginAPI implements Authn {
   public void deleteAuthnLogEventsById(String userId, Map<String, String> requestHeaders,
                                        Handler<AsyncResult<Response>> asyncHandler, Context context) {
     try {
-      JsonObject headers = JsonObject.mapFrom(requestHeaders);
       context.runOnContext(contextHandler ->
-        configurationService.getEnableConfigurations(vTenantId, headers, serviceHandler -> {
-          if (serviceHandler.failed()) {
-            String errorMessage = serviceHandler.cause().getMessage();
-            asyncHandler.handle(createFutureResponse(
-              DeleteAuthnLogEventsByIdResponse.respond500WithTextPlain(errorMessage)));
-            return;
-          }
-          ConfigResponse responseEntity = getResponseEntity(serviceHandler, ConfigResponse.class);
-          if (!responseEntity.getEnabled()) {
+        getLoginPolicy(requestHeaders, context).setHandler(policyHandler -> {
+          // the login policy lookup never fails, event logging is disabled when it could not be loaded
+          LoginPolicy loginPolicy = policyHandler.result();
+          if (!loginPolicy.isEventLogEnabled()) {
             asyncHandler.handle(createFutureResponse(
               DeleteAuthnLogEventsByIdResponse.respond204WithTextPlain(MESSAGE_LOG_CONFIGURATION_IS_DISABLED)));
             return;
@@ -1083,6 +1358,19 @@ public class LoginAPI implements Authn {
     }
   }
 
+  /**
+   * Returns the tenant's login policy, it holds the EVENT_LOG settings used by the log event endpoints
+   *
+   * @param okapiHeaders - okapi headers of the request
+   * @param context      - vertx context
+   * @return - future with the cached login policy, it never fails
+   */
+  private Future<LoginPolicy> getLoginPolicy(Map<String, String> okapiHeaders, Context context) {
+    OkapiConnectionParams params = new OkapiConnectionParams(okapiHeaders.get(OKAPI_URL_HEADER), vTenantId,
+      okapiHeaders.get(OKAPI_TOKEN_HEADER), context.owner(), lookupTimeout);
+    return LoginPolicyLoader.getLoginPolicy(params);
+  }
+
   private void testForFile(String path) {
     URL u = LoginAPI.class.getClassLoader().getResource(path);
     if(u == null) {
@@ -1153,10 +1441,12 @@ public class LoginAPI implements Authn {
                 asyncResultHandler.handle(Future.succeededFuture(
                     PostAuthnUpdateResponse.respond401WithTextPlain("Invalid credentials")));
               } else { //Password checks out, we can proceed
-                Credential newCred = makeCredentialObject(null, userEntity.getString("id"),
-                  entity.getNewPassword());
-
-                passwordStorageService.updateCredential(JsonObject.mapFrom(newCred), okapiHeaders, updateCredResult -> {
+                makeCredentialObject(null, userEntity.getString("id"), entity.getNewPassword(), tenantId)
+                  .compose(newCred -> {
+                    Future<Void> updateFuture = Future.future();
+                    passwordStorageService.updateCredential(JsonObject.mapFrom(newCred), okapiHeaders, updateFuture.completer());
+                    return updateFuture;
+                  }).setHandler(updateCredResult -> {
                   if(updateCredResult.failed()) {
                     String message = updateCredResult.cause().getLocalizedMessage();
                     logger.error(message);
@@ -1165,10 +1455,12 @@ public class LoginAPI implements Authn {
                   } else {
                     // after succesfull change password skip login attempts counter
                     PostgresClient pgClient = PostgresClient.getInstance(vertxContext.owner(), tenantId);
-                    getLoginAttemptsByUserId(userEntity.getString("id"), pgClient, asyncResultHandler,
-                      onLoginSuccessAttemptHandler(userEntity, pgClient, asyncResultHandler));
-
-                    asyncResultHandler.handle(Future.succeededFuture(PostAuthnUpdateResponse.respond204()));
+                    onLoginSuccessAttempt(userEntity, tenantId, pgClient).setHandler(resetResult -> {
+                      if(resetResult.failed()) {
+                        logger.error("Error on dropping login attempts: " + resetResult.cause().getLocalizedMessage());
+                      }
+                      asyncResultHandler.handle(Future.succeededFuture(PostAuthnUpdateResponse.respond204()));
+                    });
                   }
                 });
               }
@@ -1202,28 +1494,68 @@ public class LoginAPI implements Authn {
         List<Credential> credList = getReply.result().getResults();
         if(credList.isEmpty()) {
           validLoginFuture.fail("No valid credential for that userId found");
+          return;
         }
         Credential userCred = credList.get(0);
-        String calculatedHash = authUtil.calculateHash(password, userCred.getSalt());
-        if(calculatedHash.equals(userCred.getHash())) {
-          validLoginFuture.complete(Boolean.TRUE);
-        } else {
-          validLoginFuture.complete(Boolean.FALSE);
-        }
+        authUtil.calculateHashAsync(password, userCred.getSalt(), HashDescriptor.parse(userCred.getHashDescriptor()))
+          .map(calculatedHash -> calculatedHash.equals(userCred.getHash()))
+          .setHandler(validLoginFuture.completer());
       }
     });
     return validLoginFuture;
   }
 
-  private Credential makeCredentialObject(String id, String userId, String password) {
+  private Future<Credential> makeCredentialObject(String id, String userId, String password, String tenantId) {
+    String salt = authUtil.getSalt();
+    HashDescriptor hashDescriptor = HashEngines.getTargetDescriptor(tenantId);
+    return authUtil.calculateHashAsync(password, salt, hashDescriptor).map(hash -> {
+      Credential cred = new Credential();
+      cred.setId(id);
+      cred.setUserId(userId);
+      cred.setSalt(salt);
+      cred.setHash(hash);
+      cred.setHashDescriptor(hashDescriptor.toString());
+      return cred;
+    });
+  }
+
+  /*
+    Rehash the credentials with the tenant's target hash descriptor after a successful login,
+    the update only applies if the credentials were not changed in between
+  */
+  private void rehashIfOutdated(Credential userCred, String password, HashDescriptor hashDescriptor,
+      String tenantId, Vertx vertx) {
+    if(!HashEngines.needsRehash(hashDescriptor, tenantId)) {
+      return;
+    }
+    HashDescriptor targetDescriptor = HashEngines.getTargetDescriptor(tenantId);
     String salt = authUtil.getSalt();
-    String hash = authUtil.calculateHash(password, salt);
-    Credential cred = new Credential();
-    cred.setId(id);
-    cred.setUserId(userId);
-    cred.setSalt(salt);
-    cred.setHash(hash);
-    return cred;
+    authUtil.calculateHashAsync(password, salt, targetDescriptor).setHandler(hashResult -> {
+      if(hashResult.failed()) {
+        logger.error("Error rehashing credentials: " + hashResult.cause().getLocalizedMessage());
+        return;
+      }
+      Credential rehashedCred = new Credential()
+        .withId(userCred.getId())
+        .withUserId(userCred.getUserId())
+        .withHash(hashResult.result())
+        .withSalt(salt)
+        .withHashDescriptor(targetDescriptor.toString())
+        .withMetadata(userCred.getMetadata());
+      try {
+        CQLWrapper cql = new CQLWrapper(new CQL2PgJSON(TABLE_NAME_CREDENTIALS + ".jsonb"),
+          "id==" + userCred.getId() + " and hash==" + userCred.getHash());
+        PostgresClient.getInstance(vertx, tenantId).update(TABLE_NAME_CREDENTIALS, rehashedCred, cql, true, updateReply -> {
+          if(updateReply.failed()) {
+            logger.error("Error saving rehashed credentials: " + updateReply.cause().getLocalizedMessage());
+          } else {
+            logger.debug("Rehashed credentials of user " + userCred.getUserId() + " with " + targetDescriptor);
+          }
+        });
+      } catch(Exception e) {
+        logger.error("Error saving rehashed credentials: " + e.getLocalizedMessage());
+      }
+    });
   }
 
   public static Errors getErrors(String errorMessage, String errorCode, Pair... pairs) {
@@ -0,0 +1,37 @@
+package org.folio.rest.impl;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Context;
+import io.vertx.core.Handler;
+import org.folio.rest.annotations.Validate;
+import org.folio.rest.jaxrs.model.TenantAttributes;
+import org.folio.rest.tools.utils.TenantTool;
+import org.folio.util.EventLogPartitions;
+
+import javax.ws.rs.core.Response;
+import java.util.Map;
+
+import static org.folio.rest.RestVerticle.OKAPI_HEADER_TENANT;
+
+/**
+ * Tenant initialization of RMB, followed by the maintenance of the event_logs partitions of the tenant:
+ * the tenant script creates the partitions of the default months ahead only, the configured
+ * `event.log.partitions.ahead` months have to exist before the first event is inserted.
+ */
+public class LoginTenantAPI extends TenantAPI {
+
+  @Validate
+  @Override
+  public void postTenant(TenantAttributes entity, Map<String, String> headers,
+                         Handler<AsyncResult<Response>> handlers, Context context) {
+    super.postTenant(entity, headers, result -> {
+      if (result.failed() || result.result().getStatus() >= 300) {
+        handlers.handle(result);
+        return;
+      }
+      String tenantId = TenantTool.calculateTenantId(headers.get(OKAPI_HEADER_TENANT));
+      // a failed maintenance is logged and retried by the scheduled maintenance
+      EventLogPartitions.maintain(context.owner(), tenantId).setHandler(maintained -> handlers.handle(result));
+    }, context);
+  }
+}
@@ -37,10 +37,13 @@ public interface LogStorageService {
    *
    * @param tenantId    tenant identifier
    * @param eventEntity Json representation of the entity {@link LogEvent}
-   * @return asyncResult with the entity {@link LogResponse}
+   * @param acceptOnly  complete once the entity is queued for the batched write instead of once it is saved
+   * @return asyncResult with the entity {@link LogResponse}, failed with a
+   * {@link io.vertx.serviceproxy.ServiceException} of code 429 when the write queue is full
    */
   @Fluent
-  LogStorageService createEvent(String tenantId, JsonObject eventEntity, Handler<AsyncResult<JsonObject>> asyncResultHandler);
+  LogStorageService createEvent(String tenantId, JsonObject eventEntity, boolean acceptOnly,
+                                Handler<AsyncResult<JsonObject>> asyncResultHandler);
 
   /**
    * Find the entity {@link LogEvents} by filter
@@ -49,10 +52,12 @@ public interface LogStorageService {
    * @param limit    maximum number of results
    * @param offset   offset index in a list of results
    * @param query    query string to filter users based on matching criteria in fields
+   * @param totalRecords how totalRecords is calculated: exact, estimated or none, exact when null
    * @return asyncResult with the entity {@link LogEvents}
    */
   @Fluent
-  LogStorageService findAllEvents(String tenantId, int limit, int offset, String query, Handler<AsyncResult<JsonObject>> asyncResultHandler);
+  LogStorageService findAllEvents(String tenantId, int limit, int offset, String query, String totalRecords,
+                                  Handler<AsyncResult<JsonObject>> asyncResultHandler);
 
   /**
    * Delete the entity {@link LogEvent} by userId
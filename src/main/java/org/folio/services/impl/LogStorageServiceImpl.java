@@ -7,60 +7,93 @@ import io.vertx.core.Vertx;
 import io.vertx.core.json.JsonObject;
 import io.vertx.core.logging.Logger;
 import io.vertx.core.logging.LoggerFactory;
+import io.vertx.serviceproxy.ServiceException;
+import org.apache.commons.lang.time.DateFormatUtils;
 import org.folio.rest.jaxrs.model.LogEvent;
 import org.folio.rest.jaxrs.model.LogEvents;
 import org.folio.rest.jaxrs.model.LogResponse;
 import org.folio.rest.jaxrs.model.LoggingEvent;
+import org.folio.rest.persist.Criteria.Criteria;
+import org.folio.rest.persist.Criteria.Criterion;
 import org.folio.rest.persist.Criteria.Limit;
 import org.folio.rest.persist.Criteria.Offset;
 import org.folio.rest.persist.PostgresClient;
 import org.folio.rest.persist.cql.CQLWrapper;
 import org.folio.rest.persist.interfaces.Results;
 import org.folio.services.LogStorageService;
+import org.folio.util.EventLogPartitions;
+import org.folio.util.LogEventBatcher;
+import org.folio.util.TotalRecords;
 import org.z3950.zing.cql.cql2pgjson.CQL2PgJSON;
-import org.z3950.zing.cql.cql2pgjson.FieldException;
 
+import java.util.Date;
 import java.util.UUID;
 
 import static org.folio.util.LoginConfigUtils.EMPTY_JSON_OBJECT;
+import static org.folio.util.LoginConfigUtils.EVENT_LOG_QUEUE_FULL_CODE;
+import static org.folio.util.LoginConfigUtils.EVENT_LOG_TIMESTAMP_OUT_OF_RANGE_CODE;
 import static org.folio.util.LoginConfigUtils.SNAPSHOTS_TABLE_EVENT_LOGS;
 
 public class LogStorageServiceImpl implements LogStorageService {
 
   private static final String EVENT_CONFIG_ID = "id";
   private static final String SUCCESSFUL_MESSAGE_CREATE = "Event id: %s was successfully saved to event log";
+  private static final String SUCCESSFUL_MESSAGE_ACCEPT = "Event id: %s was accepted for the event log";
+  private static final String ERROR_MESSAGE_QUEUE_FULL = "The event log queue is full, retry later";
+  private static final String ERROR_MESSAGE_TIMESTAMP_OUT_OF_RANGE =
+    "Event timestamp %s is outside the months kept in the event log";
   private static final String SUCCESSFUL_MESSAGE_DELETE = "Event was successfully deleted from event log";
   private static final String ERROR_MESSAGE_STORAGE_SERVICE = "Error while %s | message: %s";
-  private static final String EVENT_CONFIG_CRITERIA_ID = "userId==%s";
+  private static final String EVENT_USER_ID_FIELD = "'userId'";
+  private static final String EVENT_TIMESTAMP_FIELD = "timestamp";
+  private static final String DATE_FORMAT = "yyyy-MM-dd'T'HH:mm:ss.SSSZ";
 
   private final Logger logger = LoggerFactory.getLogger(LogStorageServiceImpl.class);
   private final Vertx vertx;
+  private final LogEventBatcher batcher;
 
   public LogStorageServiceImpl(Vertx vertx) {
     this.vertx = vertx;
+    this.batcher = new LogEventBatcher(vertx);
   }
 
   @Override
-  public LogStorageService createEvent(String tenantId, JsonObject eventEntity,
+  public LogStorageService createEvent(String tenantId, JsonObject eventEntity, boolean acceptOnly,
                                        Handler<AsyncResult<JsonObject>> asyncResultHandler) {
     try {
       String id = UUID.randomUUID().toString();
       eventEntity.put(EVENT_CONFIG_ID, id);
-      LogEvent eventConfig = eventEntity.mapTo(LogEvent.class);
-
-      PostgresClient.getInstance(vertx, tenantId).save(SNAPSHOTS_TABLE_EVENT_LOGS, id, eventConfig,
-        postReply -> {
-          if (postReply.failed()) {
-            String errorMessage = String.format(ERROR_MESSAGE_STORAGE_SERVICE,
-              "saving the logging event to the db", postReply.cause().getMessage());
-            logger.error(errorMessage);
-            asyncResultHandler.handle(Future.failedFuture(postReply.cause()));
-            return;
+      // validates the entity before it is queued
+      Date timestamp = eventEntity.mapTo(LogEvent.class).getTimestamp();
+      if (timestamp != null && !EventLogPartitions.isWithinPartitions(timestamp.getTime())) {
+        asyncResultHandler.handle(Future.failedFuture(new ServiceException(EVENT_LOG_TIMESTAMP_OUT_OF_RANGE_CODE,
+          String.format(ERROR_MESSAGE_TIMESTAMP_OUT_OF_RANGE, DateFormatUtils.formatUTC(timestamp, DATE_FORMAT)))));
+        return this;
+      }
+      formatDates(eventEntity);
+
+      boolean queued = batcher.offer(tenantId, id, eventEntity, writeReply -> {
+        if (writeReply.failed()) {
+          String errorMessage = String.format(ERROR_MESSAGE_STORAGE_SERVICE,
+            "saving the logging event to the db", writeReply.cause().getMessage());
+          logger.error(errorMessage);
+          if (!acceptOnly) {
+            asyncResultHandler.handle(Future.failedFuture(writeReply.cause()));
           }
-
+          return;
+        }
+        if (!acceptOnly) {
           LogResponse logResponse = new LogResponse().withMessage(String.format(SUCCESSFUL_MESSAGE_CREATE, id));
           asyncResultHandler.handle(Future.succeededFuture(JsonObject.mapFrom(logResponse)));
-        });
+        }
+      });
+      if (!queued) {
+        asyncResultHandler.handle(Future.failedFuture(
+          new ServiceException(EVENT_LOG_QUEUE_FULL_CODE, ERROR_MESSAGE_QUEUE_FULL)));
+      } else if (acceptOnly) {
+        LogResponse logResponse = new LogResponse().withMessage(String.format(SUCCESSFUL_MESSAGE_ACCEPT, id));
+        asyncResultHandler.handle(Future.succeededFuture(JsonObject.mapFrom(logResponse)));
+      }
     } catch (Exception ex) {
       String errorMessage = String.format(ERROR_MESSAGE_STORAGE_SERVICE, "creating new logging event", ex.getMessage());
       logger.error(errorMessage);
@@ -70,31 +103,46 @@ public class LogStorageServiceImpl implements LogStorageService {
   }
 
   @Override
-  public LogStorageService findAllEvents(String tenantId, int limit, int offset, String query,
+  public LogStorageService findAllEvents(String tenantId, int limit, int offset, String query, String totalRecords,
                                          Handler<AsyncResult<JsonObject>> asyncResultHandler) {
     try {
       CQLWrapper cql = getCQL(query, limit, offset);
       String[] fieldList = {"*"};
-      PostgresClient.getInstance(vertx, tenantId)
-        .get(SNAPSHOTS_TABLE_EVENT_LOGS, LoggingEvent.class, fieldList, cql, true, false,
-          getReply -> {
-            if (getReply.failed()) {
+      TotalRecords totalRecordsMode = TotalRecords.parse(totalRecords);
+      boolean exactCount = totalRecordsMode == TotalRecords.EXACT;
+      String where = getWhereClause(query);
+      PostgresClient pgClient = PostgresClient.getInstance(vertx, tenantId);
+      pgClient.get(SNAPSHOTS_TABLE_EVENT_LOGS, LoggingEvent.class, fieldList, cql, exactCount, false,
+        getReply -> {
+          if (getReply.failed()) {
+            String errorMessage = String.format(ERROR_MESSAGE_STORAGE_SERVICE,
+              "querying the db to get all event configurations", getReply.cause().getMessage());
+            logger.error(errorMessage);
+            asyncResultHandler.handle(Future.failedFuture(getReply.cause()));
+            return;
+          }
+
+          Results<LoggingEvent> result = getReply.result();
+          Future<Integer> total = exactCount
+            ? Future.succeededFuture(result.getResultInfo().getTotalRecords())
+            : totalRecordsMode.total(pgClient, PostgresClient.convertToPsqlStandard(tenantId) + "." + SNAPSHOTS_TABLE_EVENT_LOGS,
+                where, offset, limit, result.getResults().size());
+          total.setHandler(totalReply -> {
+            if (totalReply.failed()) {
               String errorMessage = String.format(ERROR_MESSAGE_STORAGE_SERVICE,
-                "querying the db to get all event configurations", getReply.cause().getMessage());
+                "calculating the total of event log entries", totalReply.cause().getMessage());
               logger.error(errorMessage);
-              asyncResultHandler.handle(Future.failedFuture(getReply.cause()));
+              asyncResultHandler.handle(Future.failedFuture(totalReply.cause()));
               return;
             }
-
-            Results<LoggingEvent> result = getReply.result();
-            Integer totalRecords = result.getResultInfo().getTotalRecords();
             LogEvents eventEntries = new LogEvents()
               .withLoggingEvent(result.getResults())
-              .withTotalRecords(totalRecords);
+              .withTotalRecords(totalReply.result());
 
             JsonObject entries = JsonObject.mapFrom(eventEntries);
             asyncResultHandler.handle(Future.succeededFuture(entries));
           });
+        });
     } catch (Exception ex) {
       String errorMessage = String.format(ERROR_MESSAGE_STORAGE_SERVICE, "find the event by filter", ex.getMessage());
       logger.error(errorMessage);
@@ -107,9 +155,8 @@ public class LogStorageServiceImpl implements LogStorageService {
   public LogStorageService deleteEventByUserId(String tenantId, String userId,
                                                Handler<AsyncResult<JsonObject>> asyncResultHandler) {
     try {
-      CQLWrapper cqlFilter = getCqlWrapper(userId);
       PostgresClient.getInstance(vertx, tenantId)
-        .delete(SNAPSHOTS_TABLE_EVENT_LOGS, cqlFilter,
+        .delete(SNAPSHOTS_TABLE_EVENT_LOGS, getUserIdCriterion(userId),
           deleteReply -> {
             if (deleteReply.failed()) {
               String errorMessage = String.format(ERROR_MESSAGE_STORAGE_SERVICE,
@@ -138,14 +185,56 @@ public class LogStorageServiceImpl implements LogStorageService {
   }
 
   /**
-   * Builds criteria wrapper
+   * The entity comes from {@link JsonObject#mapFrom} with dates as epoch milliseconds,
+   * stores them in the date-time format of the schema instead.
+   * The timestamp is the partition key of the event log, the time of arrival is used when it is missing.
+   *
+   * @param eventEntity - Json representation of the entity {@link LogEvent}
+   */
+  private void formatDates(JsonObject eventEntity) {
+    if (eventEntity.getValue(EVENT_TIMESTAMP_FIELD) == null) {
+      eventEntity.put(EVENT_TIMESTAMP_FIELD, System.currentTimeMillis());
+    }
+    formatDate(eventEntity, EVENT_TIMESTAMP_FIELD);
+    JsonObject metadata = eventEntity.getJsonObject("metadata");
+    if (metadata != null) {
+      formatDate(metadata, "createdDate");
+      formatDate(metadata, "updatedDate");
+    }
+  }
+
+  private void formatDate(JsonObject json, String field) {
+    Object value = json.getValue(field);
+    if (value instanceof Number) {
+      json.put(field, DateFormatUtils.formatUTC(((Number) value).longValue(), DATE_FORMAT));
+    }
+  }
+
+  /**
+   * Builds an exact match criterion on userId, served by the event_logs_userid_idx expression index
    *
-   * @param value - value corresponding to the key
-   * @return - CQLWrapper object
+   * @param userId - user id
+   * @return - Criterion object
    */
-  private CQLWrapper getCqlWrapper(String value) throws FieldException {
-    CQL2PgJSON cql2PgJSON = new CQL2PgJSON(SNAPSHOTS_TABLE_EVENT_LOGS + ".jsonb");
-    return new CQLWrapper(cql2PgJSON, String.format(EVENT_CONFIG_CRITERIA_ID, value));
+  private Criterion getUserIdCriterion(String userId) {
+    Criteria criteria = new Criteria()
+      .addField(EVENT_USER_ID_FIELD)
+      .setOperation(Criteria.OP_EQUAL)
+      .setValue(userId);
+    return new Criterion(criteria);
+  }
+
+  /**
+   * Build the WHERE clause of the query for counting, without limit and offset
+   *
+   * @param query - query from URL, may be null
+   * @return - WHERE clause, empty for no query
+   */
+  private String getWhereClause(String query) throws org.z3950.zing.cql.cql2pgjson.FieldException {
+    if (query == null) {
+      return "";
+    }
+    return new CQLWrapper(new CQL2PgJSON(SNAPSHOTS_TABLE_EVENT_LOGS + ".jsonb"), query).toString();
   }
 
   /**
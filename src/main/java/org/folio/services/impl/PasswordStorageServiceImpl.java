@@ -4,17 +4,14 @@ import io.vertx.core.AsyncResult;
 import io.vertx.core.Future;
 import io.vertx.core.Handler;
 import io.vertx.core.Vertx;
-import io.vertx.core.http.HttpClient;
 import io.vertx.core.json.JsonObject;
 import io.vertx.core.logging.Logger;
 import io.vertx.core.logging.LoggerFactory;
-import io.vertx.ext.sql.ResultSet;
 import io.vertx.ext.sql.SQLConnection;
 import io.vertx.ext.sql.UpdateResult;
-import org.apache.http.HttpStatus;
+import org.apache.commons.lang.time.DateFormatUtils;
 import org.folio.rest.RestVerticle;
 import org.folio.rest.impl.LoginAPI;
-import org.folio.rest.jaxrs.model.Configurations;
 import org.folio.rest.jaxrs.model.Credential;
 import org.folio.rest.jaxrs.model.CredentialsHistory;
 import org.folio.rest.jaxrs.model.Metadata;
@@ -29,13 +26,19 @@ import org.folio.rest.persist.Criteria.Limit;
 import org.folio.rest.persist.Criteria.Order;
 import org.folio.rest.persist.PostgresClient;
 import org.folio.rest.persist.cql.CQLWrapper;
+import org.folio.rest.persist.interfaces.Results;
 import org.folio.services.PasswordStorageService;
 import org.folio.util.AuthUtil;
+import org.folio.util.HashDescriptor;
+import org.folio.util.HashEngines;
+import org.folio.util.LoginPolicy;
+import org.folio.util.LoginPolicyLoader;
+import org.folio.util.OkapiConnectionParams;
+import org.folio.util.PasswordHistoryVerifier;
+import org.folio.util.UserLockouts;
 import org.z3950.zing.cql.cql2pgjson.CQL2PgJSON;
 import org.z3950.zing.cql.cql2pgjson.FieldException;
 
-import javax.ws.rs.core.HttpHeaders;
-import javax.ws.rs.core.MediaType;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
@@ -57,8 +60,10 @@ public class PasswordStorageServiceImpl implements PasswordStorageService {
   private static final String TABLE_NAME_CREDENTIALS = "auth_credentials";
   private static final String TABLE_NAME_CREDENTIALS_HISTORY = "auth_credentials_history";
   private static final String CREDENTIALS_HISTORY_DATE_FIELD = "date";
-  private static final String PW_HISTORY_NUMBER_CONF_PATH =
-    "/configurations/entries?query=configName==password.history.number";//NOSONAR
+  private static final String DATE_FORMAT = "yyyy-MM-dd'T'HH:mm:ss.SSSZ";
+  private static final String ROTATE_CRED_HISTORY_SQL = "WITH trimmed AS (DELETE FROM %1$s WHERE _id IN "
+    + "(SELECT _id FROM %1$s WHERE jsonb->>'userId' = '%2$s' ORDER BY jsonb->>'date' DESC OFFSET %3$d)) "
+    + "INSERT INTO %1$s (_id, jsonb) VALUES ('%4$s', '%5$s'::jsonb)";
 
   public static final int DEFAULT_PASSWORDS_HISTORY_NUMBER = 10;
 
@@ -215,7 +220,13 @@ public class PasswordStorageServiceImpl implements PasswordStorageService {
         }
 
         String userId = passwordCreateOpt.get().getUserId();
-        findUserCredentialById(tenant, token, okapiUrl, beginTx, passwordReset, userId, asyncHandler);
+        findUserCredentialById(tenant, token, okapiUrl, beginTx, passwordReset, userId, reset -> {
+          // the new password lifts a lockout remembered after failed login attempts
+          if (reset.succeeded() && !reset.result().isEmpty()) {
+            UserLockouts.getInstance().unlock(tenant, userId);
+          }
+          asyncHandler.handle(reset);
+        });
       });
   }
 
@@ -243,12 +254,30 @@ public class PasswordStorageServiceImpl implements PasswordStorageService {
         Optional<Credential> credentialOpt = getReply.result().getResults()
           .stream().findFirst();
         if (!credentialOpt.isPresent()) {
-          Credential userCredential = createNewCredential(newPassword, userId);
-          saveUserCredential(pgClient, beginTx, asyncHandler, actionId, userCredential);
+          createNewCredential(newPassword, userId, tenant).setHandler(userCredential -> {
+            if (userCredential.failed()) {
+              pgClient.rollbackTx(beginTx,
+                rollbackTx ->
+                  asyncHandler.handle(Future.failedFuture(userCredential.cause())));
+              return;
+            }
+            saveUserCredential(pgClient, beginTx, asyncHandler, actionId, userCredential.result());
+          });
         } else {
-          Credential userCredential = createCredential(newPassword, credentialOpt.get());
-          updateCredAndCredHistory(beginTx, userCredential, tenant, token, okapiUrl)
-            .setHandler(v -> deletePasswordActionById(pgClient, beginTx, asyncHandler, actionId, false));
+          Credential oldCredential = credentialOpt.get();
+          createCredential(newPassword, oldCredential, tenant)
+            .compose(userCredential -> updateCredAndCredHistory(beginTx, userCredential, oldCredential,
+              tenant, token, okapiUrl))
+            .setHandler(updated -> {
+              // a rejected or failed hash must not consume the reset action
+              if (updated.failed()) {
+                pgClient.rollbackTx(beginTx,
+                  rollbackTx ->
+                    asyncHandler.handle(Future.failedFuture(updated.cause())));
+                return;
+              }
+              deletePasswordActionById(pgClient, beginTx, asyncHandler, actionId, false);
+            });
         }
       });
   }
@@ -307,15 +336,21 @@ public class PasswordStorageServiceImpl implements PasswordStorageService {
    * Update user credentials
    *
    * @param password a new user's password
-   * @param cred     user's credential
-   * @return updated user's credential
+   * @param cred     user's credential, left unchanged
+   * @param tenant   tenant id, selects the hash descriptor
+   * @return future with updated copy of the user's credential
    */
-  private Credential createCredential(String password, Credential cred) {
+  private Future<Credential> createCredential(String password, Credential cred, String tenant) {
     String newSalt = authUtil.getSalt();
-    String newHash = authUtil.calculateHash(password, newSalt);
-    return cred
-      .withHash(newHash)
-      .withSalt(newSalt);
+    HashDescriptor hashDescriptor = HashEngines.getTargetDescriptor(tenant);
+    return authUtil.calculateHashAsync(password, newSalt, hashDescriptor)
+      .map(newHash -> new Credential()
+        .withId(cred.getId())
+        .withUserId(cred.getUserId())
+        .withMetadata(cred.getMetadata())
+        .withHash(newHash)
+        .withSalt(newSalt)
+        .withHashDescriptor(hashDescriptor.toString()));
   }
 
   /**
@@ -323,14 +358,15 @@ public class PasswordStorageServiceImpl implements PasswordStorageService {
    *
    * @param password a new user's password
    * @param userId   user ID
-   * @return new user's credential
+   * @param tenant   tenant id
+   * @return future with new user's credential
    */
-  private Credential createNewCredential(String password, String userId) {
+  private Future<Credential> createNewCredential(String password, String userId, String tenant) {
     Credential credential = new Credential()
       .withId(UUID.randomUUID().toString())
       .withUserId(userId)
       .withMetadata(new Metadata().withCreatedDate(new Date()));
-    return createCredential(password, credential);
+    return createCredential(password, credential, tenant);
   }
 
   /**
@@ -394,8 +430,9 @@ public class PasswordStorageServiceImpl implements PasswordStorageService {
     String okapiUrl = okapiHeaders.get(LoginAPI.OKAPI_URL_HEADER);
 
     getCredByUserId(tenant, userId)
-      .map(credential ->
-        credential.getHash().equals(authUtil.calculateHash(password.getPassword(), credential.getSalt())))
+      .compose(credential -> authUtil.calculateHashAsync(password.getPassword(), credential.getSalt(),
+        HashDescriptor.parse(credential.getHashDescriptor()))
+        .map(hash -> credential.getHash().equals(hash)))
       .compose(used -> {
         if (used) {
           return Future.succeededFuture(Boolean.TRUE);
@@ -415,6 +452,13 @@ public class PasswordStorageServiceImpl implements PasswordStorageService {
   }
 
   private Future<Credential> getCredByUserId(String tenantId, String userId) {
+    return getCredByUserId(null, tenantId, userId);
+  }
+
+  /**
+   * Reads the user's credential, on the transaction connection if one is given
+   */
+  private Future<Credential> getCredByUserId(AsyncResult<SQLConnection> conn, String tenantId, String userId) {
     PostgresClient pgClient = PostgresClient.getInstance(vertx, tenantId);
 
     Future<Credential> future = Future.future();
@@ -423,7 +467,7 @@ public class PasswordStorageServiceImpl implements PasswordStorageService {
       .setOperation(Criteria.OP_EQUAL)
       .setValue(userId);
 
-    pgClient.get(TABLE_NAME_CREDENTIALS, Credential.class, new Criterion(criteria), false, false, get -> {
+    Handler<AsyncResult<Results<Credential>>> handler = get -> {
       if (get.failed()) {
         future.fail(get.cause());
       } else {
@@ -434,15 +478,31 @@ public class PasswordStorageServiceImpl implements PasswordStorageService {
           future.complete(credList.get(0));
         }
       }
-    });
+    };
+    if (conn == null) {
+      pgClient.get(TABLE_NAME_CREDENTIALS, Credential.class, new Criterion(criteria), false, false, handler);
+    } else {
+      pgClient.get(conn, TABLE_NAME_CREDENTIALS, Credential.class, new Criterion(criteria), false, false, handler);
+    }
     return future;
   }
 
+  /**
+   * Replaces the user's credential and saves the replaced one to the history,
+   * all statements run on the transaction connection
+   */
   private Future<Void> updateCredAndCredHistory(AsyncResult<SQLConnection> conn, Credential cred, String tenant,
                                                 String token, String okapiUrl) {
 
-    return getCredByUserId(tenant, cred.getUserId())
-      .compose(credential -> updateCred(conn, tenant, cred.withId(credential.getId()), credential))
+    return getCredByUserId(conn, tenant, cred.getUserId())
+      .compose(credential -> updateCredAndCredHistory(conn, cred.withId(credential.getId()), credential,
+        tenant, token, okapiUrl));
+  }
+
+  private Future<Void> updateCredAndCredHistory(AsyncResult<SQLConnection> conn, Credential newCred,
+                                                Credential oldCred, String tenant, String token, String okapiUrl) {
+
+    return updateCred(conn, tenant, newCred, oldCred)
       .compose(credential -> updateCredHistory(conn, credential, okapiUrl, token, tenant));
   }
 
@@ -462,59 +522,37 @@ public class PasswordStorageServiceImpl implements PasswordStorageService {
     return future.map(updateResult -> oldCred);
   }
 
+  /**
+   * Saves the replaced credential to the history and trims the history of the user to the tenant's
+   * password history number in one statement on the transaction connection
+   */
   private Future<Void> updateCredHistory(AsyncResult<SQLConnection> conn, Credential cred,
                                          String okapiUrl, String token, String tenant) {
 
-    return getCredHistoryCountByUserId(tenant, cred.getUserId())
-      .compose(count -> getPasswordHistoryNumber(okapiUrl, token, tenant)
-        .map(number -> count - number + 2))
-      .compose(count -> deleteOldCredHistoryRecords(conn, tenant, cred.getUserId(), count))
-      .compose(v -> {
-        Future<String> future = Future.future();
-        CredentialsHistory credHistory = new CredentialsHistory();
-        credHistory.setId(UUID.randomUUID().toString());
-        credHistory.setUserId(cred.getUserId());
-        credHistory.setSalt(cred.getSalt());
-        credHistory.setHash(cred.getHash());
-        credHistory.setDate(new Date());
-
-        PostgresClient pgClient = PostgresClient.getInstance(vertx, tenant);
-        pgClient.save(conn, TABLE_NAME_CREDENTIALS_HISTORY, UUID.randomUUID().toString(),
-          credHistory, future.completer());
-
-        return future.map(s -> null);
+    return getPasswordHistoryNumber(okapiUrl, token, tenant)
+      .compose(number -> {
+        Future<UpdateResult> future = Future.future();
+        String id = UUID.randomUUID().toString();
+        JsonObject credHistory = new JsonObject()
+          .put("id", id)
+          .put("userId", cred.getUserId())
+          .put("hash", cred.getHash())
+          .put("salt", cred.getSalt())
+          .put("date", DateFormatUtils.formatUTC(new Date(), DATE_FORMAT));
+        if (cred.getHashDescriptor() != null) {
+          credHistory.put("hashDescriptor", cred.getHashDescriptor());
+        }
+        String tableName = String.format(
+          "%s.%s", PostgresClient.convertToPsqlStandard(tenant), TABLE_NAME_CREDENTIALS_HISTORY);
+        // the new row and the current credential count against the history number
+        String query = String.format(ROTATE_CRED_HISTORY_SQL, tableName, cred.getUserId().replace("'", "''"),
+          Math.max(number - 2, 0), id, credHistory.encode().replace("'", "''"));
+        conn.result().execute(query, future.completer());
+
+        return future.map(updateResult -> null);
       });
   }
 
-  private Future<Integer> getCredHistoryCountByUserId(String tenantId, String userId) {
-    PostgresClient pgClient = PostgresClient.getInstance(vertx, tenantId);
-    String tableName = String.format(
-      "%s.%s", PostgresClient.convertToPsqlStandard(tenantId), TABLE_NAME_CREDENTIALS_HISTORY);
-    Future<ResultSet> future = Future.future();
-    String query = String.format("SELECT count(_id) FROM %s WHERE jsonb->>'userId' = '%s'", tableName, userId);
-    pgClient.select(query, future.completer());
-
-    return future.map(resultSet -> resultSet.getResults().get(0).getInteger(0));
-  }
-
-  private Future<Void> deleteOldCredHistoryRecords(AsyncResult<SQLConnection> conn, String tenantId,
-                                                   String userId, Integer count) {
-    if (count < 1) {
-      return Future.succeededFuture();
-    }
-
-    Future<Void> future = Future.future();
-    String tableName = String.format(
-      "%s.%s", PostgresClient.convertToPsqlStandard(tenantId), TABLE_NAME_CREDENTIALS_HISTORY);
-
-    String query = String.format("DELETE FROM %s WHERE _id IN " +
-        "(SELECT _id FROM %s WHERE jsonb->>'userId' = '%s' ORDER BY jsonb->>'date' ASC LIMIT %d)",
-      tableName, tableName, userId, count);
-    conn.result().execute(query, future.completer());
-
-    return future;
-  }
-
   private Future<Boolean> isPresentInCredHistory(String tenantId, String userId,
                                                  Password password, int pwdHistoryNumber) {
     Future<Boolean> future = Future.future();
@@ -535,39 +573,15 @@ public class PasswordStorageServiceImpl implements PasswordStorageService {
         return;
       }
 
-      boolean anyMatch = get.result().getResults().stream()
-        .map(history -> authUtil.calculateHash(password.getPassword(), history.getSalt()))
-        .anyMatch(hash -> get.result().getResults().stream()
-          .anyMatch(history -> history.getHash().equals(hash)));
-
-      future.complete(anyMatch);
+      PasswordHistoryVerifier.isPresent(authUtil, password.getPassword(), get.result().getResults())
+        .setHandler(future.completer());
     });
 
     return future;
   }
 
   private Future<Integer> getPasswordHistoryNumber(String okapiUrl, String token, String tenant) {
-    Future<Integer> future = Future.future();
-    HttpClient httpClient = vertx.createHttpClient();
-
-    httpClient.getAbs(okapiUrl + PW_HISTORY_NUMBER_CONF_PATH)
-      .putHeader(HttpHeaders.ACCEPT, MediaType.TEXT_PLAIN)
-      .putHeader(RestVerticle.OKAPI_HEADER_TOKEN, token)
-      .putHeader(RestVerticle.OKAPI_HEADER_TENANT, tenant)
-      .exceptionHandler(throwable -> future.complete(DEFAULT_PASSWORDS_HISTORY_NUMBER))
-      .handler(resp -> resp.bodyHandler(body -> {
-        if (resp.statusCode() != HttpStatus.SC_OK) {
-          future.complete(DEFAULT_PASSWORDS_HISTORY_NUMBER);
-        } else {
-          Configurations conf = body.toJsonObject().mapTo(Configurations.class);
-          if (conf.getConfigs().isEmpty()) {
-            future.complete(DEFAULT_PASSWORDS_HISTORY_NUMBER);
-            return;
-          }
-          future.complete(Integer.valueOf(conf.getConfigs().get(0).getValue()));
-        }
-      })).end();
-
-    return future;
+    return LoginPolicyLoader.getLoginPolicy(new OkapiConnectionParams(okapiUrl, tenant, token, vertx, null))
+      .map(LoginPolicy::getPasswordHistoryNumber);
   }
 }
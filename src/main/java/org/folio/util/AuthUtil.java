@@ -1,11 +1,6 @@
 package org.folio.util;
 
-import java.security.NoSuchAlgorithmException;
-import java.security.SecureRandom;
-import java.security.spec.InvalidKeySpecException;
-import javax.crypto.SecretKeyFactory;
-import javax.crypto.spec.PBEKeySpec;
-import javax.xml.bind.DatatypeConverter;
+import io.vertx.core.Future;
 
 /**
  *
@@ -13,45 +8,59 @@ import javax.xml.bind.DatatypeConverter;
  */
 public class AuthUtil {
 
-  private static final String DEFAULT_ALGORITHM = "PBKDF2WithHmacSHA1";
-  private static final int DEFAULT_ITERATIONS = 1000;
-  private static final int DEFAULT_KEYLENGTH = 160;
-
-  private String algorithm;
-  private int iterations;
-  private int keyLength;
+  private HashDescriptor descriptor;
 
   public AuthUtil(String algorithm, int iterations, int keyLength) {
-    this.algorithm = algorithm;
-    this.iterations = iterations;
-    this.keyLength = keyLength;
+    this.descriptor = new HashDescriptor(algorithm, iterations, keyLength);
   }
 
   public AuthUtil() {
-    this.algorithm = DEFAULT_ALGORITHM;
-    this.iterations = DEFAULT_ITERATIONS;
-    this.keyLength = DEFAULT_KEYLENGTH;
+    this.descriptor = HashDescriptor.LEGACY;
   }
 
   public String calculateHash(String password, String salt) {
-    //public String calculateHash(String password, String salt) {
-    char[] passwordArray = password.toCharArray();
-    byte[] saltBytes = DatatypeConverter.parseHexBinary(salt);
-    PBEKeySpec spec = new PBEKeySpec(passwordArray, saltBytes, iterations, keyLength);
-    byte[] hash;
-    try {
-      SecretKeyFactory keyFactory = SecretKeyFactory.getInstance(algorithm);
-      hash = keyFactory.generateSecret(spec).getEncoded();
-    } catch(NoSuchAlgorithmException | InvalidKeySpecException e) {
-      throw new RuntimeException(e);
-    }
-    return DatatypeConverter.printHexBinary(hash);
+    return calculateHash(password, salt, descriptor);
+  }
+
+  /**
+   * Calculates the hash with the engine registered for the descriptor's algorithm
+   *
+   * @param password   - plain text password
+   * @param salt       - hex encoded salt
+   * @param descriptor - algorithm, iteration count and key length to use
+   * @return - hex encoded hash
+   */
+  public String calculateHash(String password, String salt, HashDescriptor descriptor) {
+    return HashEngines.get(descriptor.getAlgorithm()).hash(password, salt, descriptor);
+  }
+
+  /**
+   * Calculates the hash on the dedicated {@link HashingExecutor} instead of the calling thread
+   *
+   * @param password - plain text password
+   * @param salt     - hex encoded salt
+   * @return - future with the hex encoded hash, completed on the caller's context
+   */
+  public Future<String> calculateHashAsync(String password, String salt) {
+    return calculateHashAsync(password, salt, descriptor);
+  }
+
+  /**
+   * Calculates the hash with the given descriptor on the dedicated {@link HashingExecutor}
+   *
+   * @param password   - plain text password
+   * @param salt       - hex encoded salt
+   * @param descriptor - algorithm, iteration count and key length to use
+   * @return - future with the hex encoded hash, completed on the caller's context
+   */
+  public Future<String> calculateHashAsync(String password, String salt, HashDescriptor descriptor) {
+    return HashingExecutor.getInstance().execute(() -> calculateHash(password, salt, descriptor));
   }
 
+  /**
+   * @return - random salt taken from the shared pre-filled {@link SaltGenerator}
+   */
   public String getSalt() {
-    SecureRandom random = new SecureRandom();
-    byte bytes[] = new byte[20];
-    random.nextBytes(bytes);
-    return DatatypeConverter.printHexBinary(bytes);
+    return SaltGenerator.getInstance().next();
   }
 }
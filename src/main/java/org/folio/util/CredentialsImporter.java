@@ -0,0 +1,297 @@
+package org.folio.util;
+
+import io.vertx.core.CompositeFuture;
+import io.vertx.core.Future;
+import io.vertx.core.json.DecodeException;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.sql.ResultSet;
+import org.apache.commons.lang.time.DateFormatUtils;
+import org.folio.rest.jaxrs.model.CredentialsImportRecord;
+import org.folio.rest.jaxrs.model.CredentialsImportResult;
+import org.folio.rest.persist.PostgresClient;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import static org.folio.rest.RestVerticle.MODULE_SPECIFIC_ARGS;
+
+/**
+ * Bulk import of credentials from newline delimited JSON.
+ * Each line holds a userId and either a plain text password or a pre-hashed hash and salt.
+ * Lines are processed in batches: the passwords of a batch are hashed in parallel on the {@link HashingExecutor}
+ * while the previous batch is written with one multi-row INSERT, existing credentials are left untouched.
+ */
+public class CredentialsImporter {
+
+  private static final String IMPORT_BATCH_SIZE = "credentials.import.batch.size";
+  /**
+   * Imported hashes may use at most this many times the iterations of the tenant's target descriptor,
+   * every login of such a user costs as much hashing
+   */
+  private static final int MAX_ITERATIONS_FACTOR = 4;
+  private static final int MAX_KEY_LENGTH = 512;
+  private static final Pattern HEX = Pattern.compile("([0-9a-fA-F]{2})+");
+  private static final String TABLE_NAME_CREDENTIALS = "auth_credentials";
+  private static final String DATE_FORMAT = "yyyy-MM-dd'T'HH:mm:ss.SSSZ";
+  private static final String INSERT_SQL = "INSERT INTO %s (_id, jsonb) VALUES %s "
+    + "ON CONFLICT DO NOTHING RETURNING jsonb->>'userId'";
+
+  private final AuthUtil authUtil = new AuthUtil();
+  private final PostgresClient pgClient;
+  private final String tenantId;
+  private final String createdByUserId;
+  private final int batchSize;
+  private final List<CredentialsImportRecord> records = new ArrayList<>();
+  private final Set<String> seenUserIds = new HashSet<>();
+  private int lineNumber;
+
+  /**
+   * @param pgClient        - postgres client of the tenant
+   * @param tenantId        - tenant id
+   * @param createdByUserId - id of the user running the import, stored in the metadata, may be null
+   */
+  public CredentialsImporter(PostgresClient pgClient, String tenantId, String createdByUserId) {
+    this(pgClient, tenantId, createdByUserId,
+      Integer.parseInt(MODULE_SPECIFIC_ARGS.getOrDefault(IMPORT_BATCH_SIZE, "200")));
+  }
+
+  public CredentialsImporter(PostgresClient pgClient, String tenantId, String createdByUserId, int batchSize) {
+    this.pgClient = pgClient;
+    this.tenantId = tenantId;
+    this.createdByUserId = createdByUserId;
+    this.batchSize = batchSize;
+  }
+
+  /**
+   * Imports all lines of the reader, an importer instance is used for one import only
+   *
+   * @param reader - newline delimited JSON
+   * @return - future with the result of each line, fails only if the input cannot be read
+   */
+  public Future<CredentialsImportResult> importCredentials(BufferedReader reader) {
+    Future<Void> done;
+    try {
+      done = importBatches(reader, hashBatch(readBatch(reader)));
+    } catch (IOException e) {
+      return Future.failedFuture(e);
+    }
+    return done.map(v -> {
+      int created = (int) records.stream()
+        .filter(record -> record.getStatus() == CredentialsImportRecord.Status.CREATED)
+        .count();
+      return new CredentialsImportResult()
+        .withRecords(records)
+        .withCreated(created)
+        .withFailed(records.size() - created)
+        .withTotalRecords(records.size());
+    });
+  }
+
+  /**
+   * Writes the hashed batch while the next batch is being hashed
+   */
+  private Future<Void> importBatches(BufferedReader reader, Future<List<Row>> hashed) {
+    return hashed.compose(rows -> {
+      if (rows.isEmpty()) {
+        return Future.succeededFuture();
+      }
+      Future<List<Row>> next;
+      try {
+        next = hashBatch(readBatch(reader));
+      } catch (IOException e) {
+        return Future.failedFuture(e);
+      }
+      return insertBatch(rows).compose(v -> importBatches(reader, next));
+    });
+  }
+
+  /**
+   * Reads up to batchSize lines, lines that cannot be imported get their failed record right away
+   *
+   * @return - rows to hash and insert, empty only at the end of the input
+   */
+  private List<Row> readBatch(BufferedReader reader) throws IOException {
+    List<Row> rows = new ArrayList<>();
+    String line;
+    while (rows.size() < batchSize && (line = reader.readLine()) != null) {
+      lineNumber++;
+      if (line.trim().isEmpty()) {
+        continue;
+      }
+      CredentialsImportRecord record = new CredentialsImportRecord().withLine(lineNumber);
+      records.add(record);
+      JsonObject json;
+      String userId;
+      boolean hasPassword;
+      boolean hasHash;
+      try {
+        json = new JsonObject(line);
+        userId = json.getString("userId");
+        hasPassword = json.getString("password") != null;
+        hasHash = json.getString("hash") != null && json.getString("salt") != null;
+        json.getString("hashDescriptor");
+      } catch (DecodeException | ClassCastException e) {
+        fail(record, "Invalid JSON: " + e.getMessage());
+        continue;
+      }
+      record.setUserId(userId);
+      if (userId == null || userId.isEmpty()) {
+        fail(record, "userId is required");
+      } else if (!hasPassword && !hasHash) {
+        fail(record, "Either password or hash and salt are required");
+      } else if (!isValidHashDescriptor(json.getString("hashDescriptor"))) {
+        fail(record, "Invalid hashDescriptor, expected algorithm:iterations:keyLength of a known algorithm "
+          + "with at most " + getMaxIterations() + " iterations and a key length of at most " + getMaxKeyLength()
+          + ": " + json.getString("hashDescriptor"));
+      } else if (!hasPassword && !(isHex(json.getString("hash")) && isHex(json.getString("salt")))) {
+        fail(record, "hash and salt must be hex encoded");
+      } else if (!seenUserIds.add(userId)) {
+        fail(record, "Duplicate userId in the import");
+      } else {
+        rows.add(new Row(record, json));
+      }
+    }
+    return rows;
+  }
+
+  /**
+   * @param hashDescriptor - descriptor of an imported hash, may be absent for legacy hashes
+   * @return - true if logins can verify hashes with the descriptor
+   */
+  private boolean isValidHashDescriptor(String hashDescriptor) {
+    try {
+      HashDescriptor descriptor = HashDescriptor.parse(hashDescriptor);
+      HashEngines.get(descriptor.getAlgorithm());
+      return descriptor.getIterations() <= getMaxIterations() && descriptor.getKeyLength() <= getMaxKeyLength();
+    } catch (IllegalArgumentException e) {
+      return false;
+    }
+  }
+
+  /**
+   * @return - max iterations of an imported hash, relative to the tenant's target descriptor
+   */
+  private int getMaxIterations() {
+    int iterations = Math.max(HashEngines.getTargetDescriptor(tenantId).getIterations(),
+      HashDescriptor.LEGACY.getIterations());
+    return (int) Math.min(Integer.MAX_VALUE, (long) iterations * MAX_ITERATIONS_FACTOR);
+  }
+
+  private int getMaxKeyLength() {
+    return Math.max(HashEngines.getTargetDescriptor(tenantId).getKeyLength(), MAX_KEY_LENGTH);
+  }
+
+  /**
+   * @param value - imported hash or salt
+   * @return - true if logins can decode the value, see {@link Pbkdf2#parseHex(String)}
+   */
+  private static boolean isHex(String value) {
+    return value != null && HEX.matcher(value).matches();
+  }
+
+  private Future<List<Row>> hashBatch(List<Row> rows) {
+    List<Future> hashes = rows.stream()
+      .map(this::hashRow)
+      .collect(Collectors.toList());
+    return CompositeFuture.all(hashes).map(v -> rows);
+  }
+
+  private Future<Void> hashRow(Row row) {
+    String password = row.json.getString("password");
+    if (password == null) {
+      row.credential = buildCredential(row.json.getString("userId"), row.json.getString("hash"),
+        row.json.getString("salt"), row.json.getString("hashDescriptor"));
+      return Future.succeededFuture();
+    }
+    String salt = authUtil.getSalt();
+    HashDescriptor descriptor = HashEngines.getTargetDescriptor(tenantId);
+    Future<Void> future = Future.future();
+    authUtil.calculateHashAsync(password, salt, descriptor).setHandler(hash -> {
+      if (hash.failed()) {
+        fail(row.record, "Hashing failed: " + hash.cause().getMessage());
+      } else {
+        row.credential = buildCredential(row.json.getString("userId"), hash.result(), salt, descriptor.toString());
+      }
+      future.complete();
+    });
+    return future;
+  }
+
+  private JsonObject buildCredential(String userId, String hash, String salt, String hashDescriptor) {
+    String now = DateFormatUtils.formatUTC(System.currentTimeMillis(), DATE_FORMAT);
+    JsonObject metadata = new JsonObject()
+      .put("createdDate", now)
+      .put("updatedDate", now);
+    if (createdByUserId != null) {
+      metadata.put("createdByUserId", createdByUserId).put("updatedByUserId", createdByUserId);
+    }
+    JsonObject credential = new JsonObject()
+      .put("id", UUID.randomUUID().toString())
+      .put("userId", userId)
+      .put("hash", hash)
+      .put("salt", salt)
+      .put("metadata", metadata);
+    if (hashDescriptor != null) {
+      credential.put("hashDescriptor", hashDescriptor);
+    }
+    return credential;
+  }
+
+  private Future<Void> insertBatch(List<Row> batch) {
+    List<Row> rows = batch.stream()
+      .filter(row -> row.credential != null)
+      .collect(Collectors.toList());
+    if (rows.isEmpty()) {
+      return Future.succeededFuture();
+    }
+    Future<ResultSet> insert = Future.future();
+    String values = rows.stream()
+      .map(row -> String.format("('%s', '%s'::jsonb)", row.credential.getString("id"),
+        row.credential.encode().replace("'", "''")))
+      .collect(Collectors.joining(", "));
+    String table = String.format("%s.%s", PostgresClient.convertToPsqlStandard(tenantId), TABLE_NAME_CREDENTIALS);
+    pgClient.select(String.format(INSERT_SQL, table, values), insert.completer());
+    Future<Void> future = Future.future();
+    insert.setHandler(result -> {
+      if (result.failed()) {
+        rows.forEach(row -> fail(row.record, "Saving credentials failed: " + result.cause().getMessage()));
+      } else {
+        Set<String> inserted = result.result().getResults().stream()
+          .map(insertedRow -> insertedRow.getString(0))
+          .collect(Collectors.toSet());
+        rows.forEach(row -> {
+          if (inserted.contains(row.record.getUserId())) {
+            row.record.setStatus(CredentialsImportRecord.Status.CREATED);
+          } else {
+            fail(row.record, "There already exists credentials for user id '" + row.record.getUserId() + "'");
+          }
+        });
+      }
+      future.complete();
+    });
+    return future;
+  }
+
+  private static void fail(CredentialsImportRecord record, String message) {
+    record.setStatus(CredentialsImportRecord.Status.FAILED);
+    record.setMessage(message);
+  }
+
+  private static class Row {
+    private final CredentialsImportRecord record;
+    private final JsonObject json;
+    private JsonObject credential;
+
+    private Row(CredentialsImportRecord record, JsonObject json) {
+      this.record = record;
+      this.json = json;
+    }
+  }
+}
@@ -0,0 +1,146 @@
+package org.folio.util;
+
+import io.vertx.core.CompositeFuture;
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.logging.Logger;
+import io.vertx.core.logging.LoggerFactory;
+import io.vertx.ext.sql.ResultSet;
+import org.folio.rest.persist.PostgresClient;
+
+import java.time.Instant;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.folio.rest.RestVerticle.MODULE_SPECIFIC_ARGS;
+
+/**
+ * Scheduled maintenance of the monthly partitions of the event_logs table of each tenant.
+ * Creates the partitions of the coming months ahead of time so inserts never miss a partition
+ * and, when a retention is configured, drops whole partitions of old events instead of deleting rows.
+ * The partitioning itself is set up by the event_logs_partitioning.sql tenant script.
+ * PostgreSQL 10 has no default partition, events dated outside these months have to be rejected before insert.
+ */
+public final class EventLogPartitions {
+
+  private static final String MAINTENANCE_INTERVAL = "event.log.maintenance.interval";
+  private static final String PARTITIONS_AHEAD = "event.log.partitions.ahead";
+  private static final String RETENTION_MONTHS = "event.log.retention.months";
+  private static final String TENANT_SCHEMAS_SQL = "SELECT n.nspname FROM pg_proc p "
+    + "JOIN pg_namespace n ON n.oid = p.pronamespace WHERE p.proname = 'event_logs_maintain_partitions'";
+  private static final String MAINTAIN_SQL = "SELECT %s.event_logs_maintain_partitions(%d, %d)";
+
+  private static final Logger logger = LoggerFactory.getLogger(EventLogPartitions.class);
+
+  private EventLogPartitions() {
+    //not called
+  }
+
+  /**
+   * Runs the maintenance now and then every `event.log.maintenance.interval` seconds (default - 86400)
+   *
+   * @param vertx - Vert.x instance
+   */
+  public static void start(Vertx vertx) {
+    long intervalMillis = Long.parseLong(MODULE_SPECIFIC_ARGS.getOrDefault(MAINTENANCE_INTERVAL, "86400")) * 1000;
+    maintain(vertx);
+    if (intervalMillis > 0) {
+      vertx.setPeriodic(intervalMillis, timerId -> maintain(vertx));
+    }
+  }
+
+  /**
+   * Tells whether an event with the given timestamp has a partition to go to: the month is not after the
+   * months created ahead and, with a retention, not before the months kept
+   *
+   * @param timestamp - event timestamp, epoch milliseconds
+   * @return - true if the event can be inserted
+   */
+  public static boolean isWithinPartitions(long timestamp) {
+    YearMonth month = YearMonth.from(Instant.ofEpochMilli(timestamp).atOffset(ZoneOffset.UTC));
+    YearMonth current = YearMonth.now(ZoneOffset.UTC);
+    if (month.isAfter(current.plusMonths(getMonthsAhead()))) {
+      return false;
+    }
+    int retentionMonths = getRetentionMonths();
+    return retentionMonths <= 0 || !month.isBefore(current.minusMonths(retentionMonths));
+  }
+
+  /**
+   * Creates the partitions of the current and the next `event.log.partitions.ahead` months (default - 3, at least 1)
+   * and drops the partitions older than `event.log.retention.months` (default - 0, keeps all) for every tenant
+   *
+   * @param vertx - Vert.x instance
+   * @return - future with the number of dropped partitions
+   */
+  public static Future<Integer> maintain(Vertx vertx) {
+    int monthsAhead = getMonthsAhead();
+    int retentionMonths = getRetentionMonths();
+    PostgresClient pgClient = PostgresClient.getInstance(vertx);
+    Future<ResultSet> schemas = Future.future();
+    pgClient.select(TENANT_SCHEMAS_SQL, schemas.completer());
+    Future<Integer> future = schemas.compose(resultSet -> {
+      List<Future> maintained = resultSet.getResults().stream()
+        .map(row -> maintainSchema(pgClient, row.getString(0), monthsAhead, retentionMonths))
+        .collect(Collectors.toList());
+      return CompositeFuture.join(maintained).map(all -> maintained.stream()
+        .mapToInt(dropped -> (Integer) dropped.result())
+        .sum());
+    });
+    future.setHandler(result -> {
+      if (result.failed()) {
+        logger.error("Event log partition maintenance failed: " + result.cause().getMessage());
+      }
+    });
+    return future;
+  }
+
+  /**
+   * Creates the configured partitions ahead of a single tenant, e.g. right after the tenant script that only
+   * creates the partitions of the default `event.log.partitions.ahead`
+   *
+   * @param vertx    - Vert.x instance
+   * @param tenantId - tenant id
+   * @return - future with the number of dropped partitions
+   */
+  public static Future<Integer> maintain(Vertx vertx, String tenantId) {
+    int retentionMonths = getRetentionMonths();
+    Future<Integer> future = maintainSchema(PostgresClient.getInstance(vertx),
+      PostgresClient.convertToPsqlStandard(tenantId), getMonthsAhead(), retentionMonths);
+    future.setHandler(result -> {
+      if (result.failed()) {
+        logger.error("Event log partition maintenance of " + tenantId + " failed: " + result.cause().getMessage());
+      }
+    });
+    return future;
+  }
+
+  /**
+   * @return - months created ahead, at least the next one so a new month never starts without its partition
+   */
+  private static int getMonthsAhead() {
+    return Math.max(1, Integer.parseInt(MODULE_SPECIFIC_ARGS.getOrDefault(PARTITIONS_AHEAD, "3")));
+  }
+
+  private static int getRetentionMonths() {
+    return Integer.parseInt(MODULE_SPECIFIC_ARGS.getOrDefault(RETENTION_MONTHS, "0"));
+  }
+
+  private static Future<Integer> maintainSchema(PostgresClient pgClient, String schema, int monthsAhead,
+                                                int retentionMonths) {
+    Future<ResultSet> maintained = Future.future();
+    pgClient.select(String.format(MAINTAIN_SQL, schema, monthsAhead, retentionMonths), maintained.completer());
+    return maintained.map(resultSet -> {
+      List<JsonArray> rows = resultSet.getResults();
+      int dropped = rows.isEmpty() ? 0 : rows.get(0).getInteger(0);
+      if (dropped > 0) {
+        logger.info(String.format("Dropped %d event log partitions of %s past the retention of %d months",
+          dropped, schema, retentionMonths));
+      }
+      return dropped;
+    });
+  }
+}
@@ -0,0 +1,172 @@
+package org.folio.util;
+
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.core.logging.Logger;
+import io.vertx.core.logging.LoggerFactory;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import static org.folio.rest.RestVerticle.MODULE_SPECIFIC_ARGS;
+
+/**
+ * Calibrates the iteration count of new password hashes to a latency target on the current machine.
+ * When the {@code hash.target.ms} module arg is set, the configured hash algorithm is measured at startup
+ * and the default target descriptor of {@link HashEngines} is replaced by one with the calibrated iteration count.
+ * The count is rounded to a coarse step so that nodes and restarts on similar machines agree on it.
+ */
+public final class HashCalibrator {
+
+  private static final String HASH_TARGET_MS = "hash.target.ms";
+  private static final String HASH_MIN_ITERATIONS = "hash.min.iterations";
+  private static final String HASH_ITERATIONS_STEP = "hash.iterations.step";
+  private static final String CALIBRATION_PASSWORD = "calibration-password";
+  private static final int PROBE_ITERATIONS = 1000;
+  private static final int VERIFY_ROUNDS = 5;
+  private static final long SAMPLE_NANOS = TimeUnit.MILLISECONDS.toNanos(250);
+
+  private static final Logger logger = LoggerFactory.getLogger(HashCalibrator.class);
+  private static volatile Calibration calibration;
+
+  private HashCalibrator() {
+    //not called
+  }
+
+  /**
+   * Calibrates the default hash descriptor off the event loop if {@code hash.target.ms} is set
+   *
+   * @param vertx - Vert.x instance
+   * @return - future completed when the calibration is done, it does not fail
+   */
+  public static Future<Void> start(Vertx vertx) {
+    String targetMillis = MODULE_SPECIFIC_ARGS.get(HASH_TARGET_MS);
+    if (targetMillis == null) {
+      return Future.succeededFuture();
+    }
+    Future<Void> future = Future.future();
+    vertx.<Calibration>executeBlocking(blocking -> {
+      try {
+        int minIterations = Integer.parseInt(MODULE_SPECIFIC_ARGS.getOrDefault(HASH_MIN_ITERATIONS,
+          String.valueOf(HashDescriptor.LEGACY.getIterations())));
+        int step = Integer.parseInt(MODULE_SPECIFIC_ARGS.getOrDefault(HASH_ITERATIONS_STEP, "10000"));
+        blocking.complete(calibrate(HashEngines.getTargetDescriptor(null), Long.parseLong(targetMillis), minIterations,
+          step));
+      } catch (Exception e) {
+        blocking.fail(e);
+      }
+    }, false, result -> {
+      if (result.failed()) {
+        logger.error("Hash calibration failed, keeping " + HashEngines.getTargetDescriptor(null) + ": "
+          + result.cause().getMessage());
+      } else {
+        calibration = result.result();
+        HashEngines.setTargetDescriptor(null, calibration.getDescriptor());
+        logger.info(String.format("Calibrated hashing to %s, %.1f ms per hash, %.1f hashes/sec per thread",
+          calibration.getDescriptor(), calibration.getMeasuredMillis(), calibration.getHashesPerSecond()));
+      }
+      future.complete();
+    });
+    return future;
+  }
+
+  /**
+   * Measures the hash cost on the calling thread and picks the iteration count that meets the target
+   *
+   * @param base          - descriptor whose algorithm and key length are calibrated
+   * @param targetMillis  - target time of a single hash in milliseconds
+   * @param minIterations - lower bound of the iteration count
+   * @param step          - the iteration count is rounded to a multiple of the step, at least one step
+   * @return - calibration result
+   */
+  public static Calibration calibrate(HashDescriptor base, long targetMillis, int minIterations, int step) {
+    if (targetMillis <= 0) {
+      throw new IllegalArgumentException(HASH_TARGET_MS + " must be positive: " + targetMillis);
+    }
+    if (step <= 0) {
+      throw new IllegalArgumentException(HASH_ITERATIONS_STEP + " must be positive: " + step);
+    }
+    AuthUtil authUtil = new AuthUtil();
+    String salt = authUtil.getSalt();
+    HashDescriptor probe = base.withIterations(PROBE_ITERATIONS);
+
+    // first sample warms up the JIT, the second one is measured
+    sample(authUtil, salt, probe);
+    double nanosPerIteration = sample(authUtil, salt, probe) / PROBE_ITERATIONS;
+    long iterations = Math.round(TimeUnit.MILLISECONDS.toNanos(targetMillis) / nanosPerIteration / step) * step;
+    iterations = Math.max(step, iterations);
+    HashDescriptor calibrated = base.withIterations((int) Math.max(minIterations, Math.min(iterations, Integer.MAX_VALUE)));
+
+    long start = System.nanoTime();
+    for (int i = 0; i < VERIFY_ROUNDS; i++) {
+      authUtil.calculateHash(CALIBRATION_PASSWORD, salt, calibrated);
+    }
+    double measuredMillis = (System.nanoTime() - start) / (double) TimeUnit.MILLISECONDS.toNanos(1) / VERIFY_ROUNDS;
+    return new Calibration(calibrated, targetMillis, measuredMillis, 1000 / measuredMillis, new Date());
+  }
+
+  /**
+   * @return - hashes for SAMPLE_NANOS and returns the mean time of a hash in nanoseconds
+   */
+  private static double sample(AuthUtil authUtil, String salt, HashDescriptor probe) {
+    long start = System.nanoTime();
+    long elapsed;
+    int count = 0;
+    do {
+      authUtil.calculateHash(CALIBRATION_PASSWORD, salt, probe);
+      count++;
+      elapsed = System.nanoTime() - start;
+    } while (elapsed < SAMPLE_NANOS);
+    return elapsed / (double) count;
+  }
+
+  /**
+   * @return - result of the startup calibration or null if it did not run
+   */
+  public static Calibration getCalibration() {
+    return calibration;
+  }
+
+  /**
+   * Result of a calibration run
+   */
+  public static class Calibration {
+    private final HashDescriptor descriptor;
+    private final long targetMillis;
+    private final double measuredMillis;
+    private final double hashesPerSecond;
+    private final Date date;
+
+    public Calibration(HashDescriptor descriptor, long targetMillis, double measuredMillis, double hashesPerSecond,
+                       Date date) {
+      this.descriptor = descriptor;
+      this.targetMillis = targetMillis;
+      this.measuredMillis = measuredMillis;
+      this.hashesPerSecond = hashesPerSecond;
+      this.date = date;
+    }
+
+    public HashDescriptor getDescriptor() {
+      return descriptor;
+    }
+
+    public long getTargetMillis() {
+      return targetMillis;
+    }
+
+    public double getMeasuredMillis() {
+      return measuredMillis;
+    }
+
+    /**
+     * @return - hashes per second of a single hashing thread
+     */
+    public double getHashesPerSecond() {
+      return hashesPerSecond;
+    }
+
+    public Date getDate() {
+      return new Date(date.getTime());
+    }
+  }
+}
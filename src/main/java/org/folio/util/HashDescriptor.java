@@ -0,0 +1,105 @@
+package org.folio.util;
+
+import java.util.Objects;
+
+/**
+ * Describes how a password hash was calculated: algorithm, cost (iteration count) and key length.
+ * It is stored with each credential as {@code algorithm:iterations:keyLength},
+ * credentials stored before the descriptor existed use {@link #LEGACY}.
+ */
+public class HashDescriptor {
+
+  public static final HashDescriptor LEGACY = new HashDescriptor("PBKDF2WithHmacSHA1", 1000, 160);
+  private static final String SEPARATOR = ":";
+
+  private final String algorithm;
+  private final int iterations;
+  private final int keyLength;
+
+  public HashDescriptor(String algorithm, int iterations, int keyLength) {
+    if (algorithm == null || algorithm.isEmpty() || iterations < 1 || keyLength < 8) {
+      throw new IllegalArgumentException(
+        String.format("Invalid hash descriptor: %s%s%d%s%d", algorithm, SEPARATOR, iterations, SEPARATOR, keyLength));
+    }
+    this.algorithm = algorithm;
+    this.iterations = iterations;
+    this.keyLength = keyLength;
+  }
+
+  /**
+   * @param value - stored descriptor, {@code algorithm:iterations:keyLength}
+   * @return - parsed descriptor, {@link #LEGACY} when the value is absent
+   */
+  public static HashDescriptor parse(String value) {
+    if (value == null || value.isEmpty()) {
+      return LEGACY;
+    }
+    String[] parts = value.split(SEPARATOR);
+    if (parts.length != 3) {
+      throw new IllegalArgumentException("Invalid hash descriptor: " + value);
+    }
+    try {
+      return new HashDescriptor(parts[0], Integer.parseInt(parts[1]), Integer.parseInt(parts[2]));
+    } catch (NumberFormatException e) {
+      throw new IllegalArgumentException("Invalid hash descriptor: " + value, e);
+    }
+  }
+
+  public String getAlgorithm() {
+    return algorithm;
+  }
+
+  public int getIterations() {
+    return iterations;
+  }
+
+  public int getKeyLength() {
+    return keyLength;
+  }
+
+  /**
+   * @param iterations - new iteration count
+   * @return - copy of the descriptor with the given iteration count
+   */
+  public HashDescriptor withIterations(int iterations) {
+    return new HashDescriptor(algorithm, iterations, keyLength);
+  }
+
+  /**
+   * Tells whether a hash with this descriptor should be recalculated with the target descriptor.
+   * A lower iteration count within the tolerance is kept, so calibrated iteration counts that differ
+   * slightly between nodes or restarts do not rehash the credentials back and forth.
+   *
+   * @param target    - descriptor new hashes are calculated with
+   * @param tolerance - fraction of the target iteration count a hash may fall short of, 0 - 1
+   * @return - true if the algorithm or key length differ or the iterations are below the tolerance
+   */
+  public boolean needsRehash(HashDescriptor target, double tolerance) {
+    if (!algorithm.equals(target.algorithm) || keyLength != target.keyLength) {
+      return true;
+    }
+    return iterations < target.iterations * (1 - tolerance);
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    HashDescriptor that = (HashDescriptor) o;
+    return iterations == that.iterations && keyLength == that.keyLength && algorithm.equals(that.algorithm);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(algorithm, iterations, keyLength);
+  }
+
+  @Override
+  public String toString() {
+    return algorithm + SEPARATOR + iterations + SEPARATOR + keyLength;
+  }
+}
@@ -0,0 +1,15 @@
+package org.folio.util;
+
+/**
+ * Calculates password hashes for the algorithms it is registered for at {@link HashEngines}
+ */
+public interface HashEngine {
+
+  /**
+   * @param password   - plain text password
+   * @param salt       - hex encoded salt
+   * @param descriptor - algorithm, iteration count and key length to use
+   * @return - hex encoded hash
+   */
+  String hash(String password, String salt, HashDescriptor descriptor);
+}
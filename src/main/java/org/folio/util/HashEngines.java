@@ -0,0 +1,108 @@
+package org.folio.util;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.folio.rest.RestVerticle.MODULE_SPECIFIC_ARGS;
+
+/**
+ * Registry of hash engines by algorithm name prefix and of the hash descriptor new hashes are calculated with.
+ * The target descriptor is taken from module specific args and can be overridden per tenant,
+ * credentials that fall short of it are rehashed on the next successful login.
+ */
+public final class HashEngines {
+
+  private static final String HASH_ALGORITHM = "hash.algorithm";
+  private static final String HASH_ITERATIONS = "hash.iterations";
+  private static final String HASH_KEY_LENGTH = "hash.key.length";
+  private static final String TENANT_HASH_DESCRIPTOR = "hash.descriptor.";
+  private static final String REHASH_TOLERANCE = "hash.rehash.tolerance";
+
+  private static final Map<String, HashEngine> engines = new ConcurrentHashMap<>();
+  private static final Map<String, HashDescriptor> tenantDescriptors = new ConcurrentHashMap<>();
+  private static volatile HashDescriptor defaultDescriptor;
+
+  static {
+    register("PBKDF2", new Pbkdf2HashEngine());
+  }
+
+  private HashEngines() {
+    //not called
+  }
+
+  /**
+   * Registers the engine for all algorithms whose name starts with the prefix
+   *
+   * @param algorithmPrefix - algorithm name prefix, e.g. PBKDF2
+   * @param engine          - hash engine
+   */
+  public static void register(String algorithmPrefix, HashEngine engine) {
+    engines.put(algorithmPrefix, engine);
+  }
+
+  /**
+   * @param algorithm - algorithm name, e.g. PBKDF2WithHmacSHA1
+   * @return - engine registered for the algorithm
+   */
+  public static HashEngine get(String algorithm) {
+    return engines.entrySet().stream()
+      .filter(entry -> algorithm.startsWith(entry.getKey()))
+      .map(Map.Entry::getValue)
+      .findFirst()
+      .orElseThrow(() -> new IllegalArgumentException("No hash engine registered for " + algorithm));
+  }
+
+  /**
+   * @param tenant - tenant id
+   * @return - descriptor new hashes of the tenant are calculated with
+   */
+  public static HashDescriptor getTargetDescriptor(String tenant) {
+    HashDescriptor descriptor = tenant != null ? tenantDescriptors.get(tenant) : null;
+    if (descriptor != null) {
+      return descriptor;
+    }
+    String tenantDescriptor = tenant != null ? MODULE_SPECIFIC_ARGS.get(TENANT_HASH_DESCRIPTOR + tenant) : null;
+    if (tenantDescriptor != null) {
+      return HashDescriptor.parse(tenantDescriptor);
+    }
+    return getDefaultDescriptor();
+  }
+
+  /**
+   * @param stored - descriptor of a stored hash
+   * @param tenant - tenant id
+   * @return - true if the stored hash falls short of the target descriptor of the tenant by more than
+   * `hash.rehash.tolerance` (default - 0.5) of its iterations or uses another algorithm or key length
+   */
+  public static boolean needsRehash(HashDescriptor stored, String tenant) {
+    double tolerance = Double.parseDouble(MODULE_SPECIFIC_ARGS.getOrDefault(REHASH_TOLERANCE, "0.5"));
+    return stored.needsRehash(getTargetDescriptor(tenant), tolerance);
+  }
+
+  /**
+   * Overrides the descriptor new hashes of the tenant are calculated with
+   *
+   * @param tenant     - tenant id, null changes the default descriptor
+   * @param descriptor - hash descriptor
+   */
+  public static void setTargetDescriptor(String tenant, HashDescriptor descriptor) {
+    get(descriptor.getAlgorithm());
+    if (tenant == null) {
+      defaultDescriptor = descriptor;
+    } else {
+      tenantDescriptors.put(tenant, descriptor);
+    }
+  }
+
+  private static HashDescriptor getDefaultDescriptor() {
+    if (defaultDescriptor == null) {
+      defaultDescriptor = new HashDescriptor(
+        MODULE_SPECIFIC_ARGS.getOrDefault(HASH_ALGORITHM, HashDescriptor.LEGACY.getAlgorithm()),
+        Integer.parseInt(MODULE_SPECIFIC_ARGS.getOrDefault(HASH_ITERATIONS,
+          String.valueOf(HashDescriptor.LEGACY.getIterations()))),
+        Integer.parseInt(MODULE_SPECIFIC_ARGS.getOrDefault(HASH_KEY_LENGTH,
+          String.valueOf(HashDescriptor.LEGACY.getKeyLength()))));
+    }
+    return defaultDescriptor;
+  }
+}
@@ -0,0 +1,163 @@
+package org.folio.util;
+
+import io.vertx.core.Context;
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonObject;
+import io.vertx.core.logging.Logger;
+import io.vertx.core.logging.LoggerFactory;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import static org.folio.rest.RestVerticle.MODULE_SPECIFIC_ARGS;
+
+/**
+ * Dedicated, bounded executor for CPU heavy password hashing work.
+ * Keeps key derivation off the Vert.x event loop and out of the RMB worker pool,
+ * so a burst of logins queues here instead of blocking unrelated requests.
+ */
+public class HashingExecutor {
+
+  private static final String HASH_POOL_SIZE = "hash.pool.size";
+  private static final String HASH_QUEUE_SIZE = "hash.queue.size";
+  private static final String DEFAULT_QUEUE_SIZE = "1000";
+  private static final String THREAD_NAME_PREFIX = "login-hashing-";
+
+  private static final Logger logger = LoggerFactory.getLogger(HashingExecutor.class);
+  private static HashingExecutor instance;
+
+  private final ThreadPoolExecutor executor;
+  private final AtomicLong submittedTasks = new AtomicLong();
+  private final AtomicLong completedTasks = new AtomicLong();
+  private final AtomicLong rejectedTasks = new AtomicLong();
+  private final AtomicLong totalQueueNanos = new AtomicLong();
+  private final AtomicLong totalExecutionNanos = new AtomicLong();
+
+  HashingExecutor(int poolSize, int queueSize) {
+    AtomicInteger threadCounter = new AtomicInteger();
+    ThreadFactory threadFactory = runnable -> {
+      Thread thread = new Thread(runnable, THREAD_NAME_PREFIX + threadCounter.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    };
+    this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+      new ArrayBlockingQueue<>(queueSize), threadFactory, new ThreadPoolExecutor.AbortPolicy());
+  }
+
+  /**
+   * Returns the shared executor, sized from module specific args
+   * `hash.pool.size` (default - number of available processors) and `hash.queue.size` (default - 1000)
+   *
+   * @return shared hashing executor
+   */
+  public static synchronized HashingExecutor getInstance() {
+    if (instance == null) {
+      int poolSize = Integer.parseInt(MODULE_SPECIFIC_ARGS.getOrDefault(HASH_POOL_SIZE,
+        String.valueOf(Runtime.getRuntime().availableProcessors())));
+      int queueSize = Integer.parseInt(MODULE_SPECIFIC_ARGS.getOrDefault(HASH_QUEUE_SIZE, DEFAULT_QUEUE_SIZE));
+      instance = new HashingExecutor(poolSize, queueSize);
+      logger.info("Hashing executor started with " + poolSize + " threads and queue size " + queueSize);
+    }
+    return instance;
+  }
+
+  /**
+   * Runs the task on the hashing pool and completes the returned future
+   * on the Vert.x context of the caller (if any)
+   *
+   * @param task - blocking task to execute
+   * @return - future with the task result, failed with {@link RejectedExecutionException} when the queue is full
+   */
+  public <T> Future<T> execute(Supplier<T> task) {
+    Future<T> future = Future.future();
+    Context context = Vertx.currentContext();
+    long submittedAt = System.nanoTime();
+    submittedTasks.incrementAndGet();
+    try {
+      executor.execute(() -> {
+        long startedAt = System.nanoTime();
+        totalQueueNanos.addAndGet(startedAt - submittedAt);
+        Future<T> result;
+        try {
+          result = Future.succeededFuture(task.get());
+        } catch (Exception e) {
+          result = Future.failedFuture(e);
+        }
+        totalExecutionNanos.addAndGet(System.nanoTime() - startedAt);
+        completedTasks.incrementAndGet();
+        complete(context, future, result);
+      });
+    } catch (RejectedExecutionException e) {
+      rejectedTasks.incrementAndGet();
+      logger.warn("Hashing queue is full, rejecting task. Queue depth: " + getQueueDepth());
+      future.fail(e);
+    }
+    return future;
+  }
+
+  private static <T> void complete(Context context, Future<T> future, Future<T> result) {
+    if (context == null) {
+      future.handle(result);
+    } else {
+      context.runOnContext(v -> future.handle(result));
+    }
+  }
+
+  public int getQueueDepth() {
+    return executor.getQueue().size();
+  }
+
+  public int getActiveCount() {
+    return executor.getActiveCount();
+  }
+
+  public int getPoolSize() {
+    return executor.getCorePoolSize();
+  }
+
+  public long getRejectedCount() {
+    return rejectedTasks.get();
+  }
+
+  public long getCompletedCount() {
+    return completedTasks.get();
+  }
+
+  /**
+   * @return - average time in milliseconds a task spent waiting in the queue
+   */
+  public double getAverageQueueMillis() {
+    long completed = completedTasks.get();
+    return completed == 0 ? 0 : totalQueueNanos.get() / (completed * 1_000_000.0);
+  }
+
+  /**
+   * @return - average time in milliseconds a task spent on the hashing thread
+   */
+  public double getAverageExecutionMillis() {
+    long completed = completedTasks.get();
+    return completed == 0 ? 0 : totalExecutionNanos.get() / (completed * 1_000_000.0);
+  }
+
+  /**
+   * @return - snapshot of the executor metrics
+   */
+  public JsonObject getMetrics() {
+    return new JsonObject()
+      .put("poolSize", getPoolSize())
+      .put("activeCount", getActiveCount())
+      .put("queueDepth", getQueueDepth())
+      .put("submitted", submittedTasks.get())
+      .put("completed", getCompletedCount())
+      .put("rejected", getRejectedCount())
+      .put("averageQueueMillis", getAverageQueueMillis())
+      .put("averageExecutionMillis", getAverageExecutionMillis());
+  }
+}
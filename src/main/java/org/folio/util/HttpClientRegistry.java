@@ -0,0 +1,108 @@
+package org.folio.util;
+
+import io.vertx.core.Vertx;
+import io.vertx.core.http.HttpClient;
+import io.vertx.core.http.HttpClientOptions;
+import io.vertx.core.http.HttpVersion;
+import io.vertx.core.json.JsonObject;
+import io.vertx.core.logging.Logger;
+import io.vertx.core.logging.LoggerFactory;
+
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.folio.rest.RestVerticle.MODULE_SPECIFIC_ARGS;
+
+/**
+ * Registry of pooled keep-alive http clients used for all outbound calls to Okapi.
+ * One client is shared per Vert.x instance, so connections are reused between requests
+ * instead of being opened (and leaked) for every call.
+ */
+public class HttpClientRegistry {
+
+  private static final String HTTP_POOL_SIZE = "okapi.http.pool.size";
+  private static final String HTTP_PIPELINING = "okapi.http.pipelining";
+  private static final String HTTP_PIPELINING_LIMIT = "okapi.http.pipelining.limit";
+  private static final String HTTP2 = "okapi.http2";
+  private static final String HTTP_IDLE_TIMEOUT = "okapi.http.idle.timeout";
+  private static final String HTTP_CONNECT_TIMEOUT = "okapi.http.connect.timeout";
+
+  private static final Logger logger = LoggerFactory.getLogger(HttpClientRegistry.class);
+  private static final Map<Vertx, HttpClientRegistry> registries = new WeakHashMap<>();
+
+  private final HttpClient httpClient;
+  private final HttpClientOptions options;
+  private final AtomicLong openedConnections = new AtomicLong();
+  private final AtomicLong closedConnections = new AtomicLong();
+
+  private HttpClientRegistry(Vertx vertx) {
+    this.options = buildOptions();
+    this.httpClient = vertx.createHttpClient(options);
+    this.httpClient.connectionHandler(connection -> {
+      openedConnections.incrementAndGet();
+      connection.closeHandler(v -> closedConnections.incrementAndGet());
+    });
+    logger.info("Okapi http client created: " + getMetrics().encode());
+  }
+
+  /**
+   * Returns the registry of the given Vert.x instance, creating it on first use
+   *
+   * @param vertx - Vert.x instance
+   * @return - http client registry
+   */
+  public static synchronized HttpClientRegistry getInstance(Vertx vertx) {
+    return registries.computeIfAbsent(vertx, HttpClientRegistry::new);
+  }
+
+  /**
+   * Shortcut for the shared http client of the given Vert.x instance
+   *
+   * @param vertx - Vert.x instance
+   * @return - pooled http client
+   */
+  public static HttpClient getClient(Vertx vertx) {
+    return getInstance(vertx).getHttpClient();
+  }
+
+  public HttpClient getHttpClient() {
+    return httpClient;
+  }
+
+  /**
+   * Builds client options from module specific args
+   */
+  private static HttpClientOptions buildOptions() {
+    HttpClientOptions options = new HttpClientOptions()
+      .setKeepAlive(true)
+      .setMaxPoolSize(Integer.parseInt(MODULE_SPECIFIC_ARGS.getOrDefault(HTTP_POOL_SIZE, "50")))
+      .setPipelining(Boolean.parseBoolean(MODULE_SPECIFIC_ARGS.getOrDefault(HTTP_PIPELINING, "false")))
+      .setPipeliningLimit(Integer.parseInt(MODULE_SPECIFIC_ARGS.getOrDefault(HTTP_PIPELINING_LIMIT, "10")))
+      .setIdleTimeout(Integer.parseInt(MODULE_SPECIFIC_ARGS.getOrDefault(HTTP_IDLE_TIMEOUT, "60")))
+      .setConnectTimeout(Integer.parseInt(MODULE_SPECIFIC_ARGS.getOrDefault(HTTP_CONNECT_TIMEOUT, "2000")));
+    if (Boolean.parseBoolean(MODULE_SPECIFIC_ARGS.getOrDefault(HTTP2, "false"))) {
+      options.setProtocolVersion(HttpVersion.HTTP_2)
+        .setHttp2ClearTextUpgrade(false)
+        .setHttp2MaxPoolSize(options.getMaxPoolSize());
+    }
+    return options;
+  }
+
+  public long getOpenConnections() {
+    return openedConnections.get() - closedConnections.get();
+  }
+
+  /**
+   * @return - snapshot of the connection pool metrics
+   */
+  public JsonObject getMetrics() {
+    return new JsonObject()
+      .put("protocol", options.getProtocolVersion().name())
+      .put("maxPoolSize", options.getMaxPoolSize())
+      .put("pipelining", options.isPipelining())
+      .put("openedConnections", openedConnections.get())
+      .put("closedConnections", closedConnections.get())
+      .put("openConnections", getOpenConnections());
+  }
+}
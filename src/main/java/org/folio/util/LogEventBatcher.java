@@ -0,0 +1,249 @@
+package org.folio.util;
+
+import com.github.mauricio.async.db.postgresql.exceptions.GenericDatabaseException;
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.sql.UpdateResult;
+import org.folio.rest.persist.PostgresClient;
+import scala.Option;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.folio.rest.RestVerticle.MODULE_SPECIFIC_ARGS;
+import static org.folio.util.LoginConfigUtils.SNAPSHOTS_TABLE_EVENT_LOGS;
+
+/**
+ * Batched writer of the event log.
+ * Events are queued in memory per tenant and written with one multi-row INSERT as soon as a batch is full
+ * or when the flush interval after the first queued event has passed, whichever comes first.
+ * At most `log.events.tenant.in.flight` batches of a tenant are written at a time, so a burst of one tenant
+ * does not take all connections of its pool; further events wait in the queue.
+ * When postgres rejects the data of a batch, its events are written one by one so a bad event does not take
+ * the others along. Other failures, e.g. a lost connection, fail the whole batch without retrying.
+ * The queue holds a bounded number of events, including the ones being written, and refuses further events
+ * so the caller can push back instead of buffering without limit.
+ */
+public class LogEventBatcher {
+
+  private static final String QUEUE_SIZE = "log.events.queue.size";
+  private static final String BATCH_SIZE = "log.events.batch.size";
+  private static final String FLUSH_MS = "log.events.flush.ms";
+  private static final String TENANT_IN_FLIGHT = "log.events.tenant.in.flight";
+  private static final String INSERT_SQL = "INSERT INTO %s (_id, jsonb) VALUES %s";
+  private static final char SQLSTATE_FIELD = 'C';
+  private static final String DATA_EXCEPTION_CLASS = "22";
+  private static final String INTEGRITY_CONSTRAINT_VIOLATION_CLASS = "23";
+
+  private final Vertx vertx;
+  private final int capacity;
+  private final int batchSize;
+  private final long flushMillis;
+  private final int maxInFlight;
+  private final Map<String, Deque<QueuedEvent>> queues = new LinkedHashMap<>();
+  private final Map<String, Integer> inFlight = new HashMap<>();
+  private int queued;
+  private int writing;
+  private boolean flushScheduled;
+
+  /**
+   * Sized from module specific args `log.events.queue.size` (default - 10000), `log.events.batch.size`
+   * (default - 100), `log.events.flush.ms` (default - 50) and `log.events.tenant.in.flight` (default - 2)
+   *
+   * @param vertx - vertx instance
+   */
+  public LogEventBatcher(Vertx vertx) {
+    this(vertx,
+      Integer.parseInt(MODULE_SPECIFIC_ARGS.getOrDefault(QUEUE_SIZE, "10000")),
+      Integer.parseInt(MODULE_SPECIFIC_ARGS.getOrDefault(BATCH_SIZE, "100")),
+      Long.parseLong(MODULE_SPECIFIC_ARGS.getOrDefault(FLUSH_MS, "50")),
+      Integer.parseInt(MODULE_SPECIFIC_ARGS.getOrDefault(TENANT_IN_FLIGHT, "2")));
+  }
+
+  /**
+   * @param vertx       - vertx instance
+   * @param capacity    - maximum number of queued and in flight events
+   * @param batchSize   - maximum number of events of one INSERT
+   * @param flushMillis - maximum time an event waits for its batch to fill up, 0 writes each event right away
+   * @param maxInFlight - maximum number of batches of one tenant written at a time
+   */
+  public LogEventBatcher(Vertx vertx, int capacity, int batchSize, long flushMillis, int maxInFlight) {
+    this.vertx = vertx;
+    this.capacity = capacity;
+    this.batchSize = Math.max(1, batchSize);
+    this.flushMillis = flushMillis;
+    this.maxInFlight = Math.max(1, maxInFlight);
+  }
+
+  /**
+   * Queues an event for writing
+   *
+   * @param tenantId     - tenant id
+   * @param id           - event id, a UUID
+   * @param event        - event to store as jsonb
+   * @param writeHandler - called once the batch of the event is written
+   * @return - false if the queue is full, the event is dropped and the handler is not called then
+   */
+  public boolean offer(String tenantId, String id, JsonObject event, Handler<AsyncResult<Void>> writeHandler) {
+    boolean flushNow = false;
+    synchronized (this) {
+      if (queued + writing >= capacity) {
+        return false;
+      }
+      Deque<QueuedEvent> queue = queues.computeIfAbsent(tenantId, tenant -> new ArrayDeque<>());
+      queue.add(new QueuedEvent(id, event, writeHandler));
+      queued++;
+      if (queue.size() >= batchSize || flushMillis <= 0) {
+        flushNow = true;
+      } else if (!flushScheduled) {
+        flushScheduled = true;
+        vertx.setTimer(flushMillis, timerId -> {
+          synchronized (this) {
+            flushScheduled = false;
+          }
+          flush();
+        });
+      }
+    }
+    if (flushNow) {
+      flush();
+    }
+    return true;
+  }
+
+  /**
+   * @return - number of queued and in flight events
+   */
+  public synchronized int getPending() {
+    return queued + writing;
+  }
+
+  /**
+   * Starts writing the queued events of each tenant, as far as its batches in flight allow
+   */
+  private void flush() {
+    Map<String, List<List<QueuedEvent>>> batchesByTenant = new LinkedHashMap<>();
+    synchronized (this) {
+      Iterator<Map.Entry<String, Deque<QueuedEvent>>> queueIterator = queues.entrySet().iterator();
+      while (queueIterator.hasNext()) {
+        Map.Entry<String, Deque<QueuedEvent>> tenantQueue = queueIterator.next();
+        String tenantId = tenantQueue.getKey();
+        Deque<QueuedEvent> queue = tenantQueue.getValue();
+        while (!queue.isEmpty() && inFlight.getOrDefault(tenantId, 0) < maxInFlight) {
+          List<QueuedEvent> batch = new ArrayList<>(Math.min(queue.size(), batchSize));
+          while (batch.size() < batchSize && !queue.isEmpty()) {
+            batch.add(queue.poll());
+          }
+          queued -= batch.size();
+          writing += batch.size();
+          inFlight.merge(tenantId, 1, Integer::sum);
+          batchesByTenant.computeIfAbsent(tenantId, tenant -> new ArrayList<>()).add(batch);
+        }
+        if (queue.isEmpty()) {
+          queueIterator.remove();
+        }
+      }
+    }
+    batchesByTenant.forEach((tenantId, batches) -> batches.forEach(batch ->
+      write(tenantId, batch).setHandler(done -> batchDone(tenantId))));
+  }
+
+  /**
+   * Frees the batch slot of the tenant and writes the events that waited for it
+   */
+  private void batchDone(String tenantId) {
+    boolean waiting;
+    synchronized (this) {
+      inFlight.computeIfPresent(tenantId, (tenant, batches) -> batches > 1 ? batches - 1 : null);
+      waiting = queues.containsKey(tenantId);
+    }
+    if (waiting) {
+      flush();
+    }
+  }
+
+  /**
+   * @return - future completed once every event of the batch got its result
+   */
+  private Future<Void> write(String tenantId, List<QueuedEvent> events) {
+    Future<Void> future = Future.future();
+    insert(tenantId, events, reply -> {
+      if (reply.succeeded() || events.size() == 1 || !isDataError(reply.cause())) {
+        complete(events, reply);
+        future.complete();
+        return;
+      }
+      // a single bad row fails the whole INSERT, write the rows one by one so it only fails itself
+      writeOneByOne(tenantId, events, 0, future);
+    });
+    return future;
+  }
+
+  /**
+   * Writes the events one after another, the retry stays within the batch slot of the tenant
+   */
+  private void writeOneByOne(String tenantId, List<QueuedEvent> events, int index, Future<Void> future) {
+    if (index >= events.size()) {
+      future.complete();
+      return;
+    }
+    List<QueuedEvent> single = Collections.singletonList(events.get(index));
+    insert(tenantId, single, singleReply -> {
+      complete(single, singleReply);
+      writeOneByOne(tenantId, events, index + 1, future);
+    });
+  }
+
+  /**
+   * @param cause - failure of an INSERT
+   * @return - true if postgres rejected the data of a row: an invalid value (SQLSTATE class 22)
+   * or a violated constraint (SQLSTATE class 23), including a row without a partition
+   */
+  private static boolean isDataError(Throwable cause) {
+    if (!(cause instanceof GenericDatabaseException)) {
+      return false;
+    }
+    Option<String> sqlState = ((GenericDatabaseException) cause).errorMessage().fields().get(SQLSTATE_FIELD);
+    return sqlState.isDefined() && (sqlState.get().startsWith(DATA_EXCEPTION_CLASS)
+      || sqlState.get().startsWith(INTEGRITY_CONSTRAINT_VIOLATION_CLASS));
+  }
+
+  private void insert(String tenantId, List<QueuedEvent> events, Handler<AsyncResult<UpdateResult>> replyHandler) {
+    String table = PostgresClient.convertToPsqlStandard(tenantId) + "." + SNAPSHOTS_TABLE_EVENT_LOGS;
+    String values = events.stream()
+      .map(event -> String.format("('%s', '%s'::jsonb)", event.id, event.event.encode().replace("'", "''")))
+      .collect(Collectors.joining(", "));
+    PostgresClient.getInstance(vertx, tenantId).execute(String.format(INSERT_SQL, table, values), replyHandler);
+  }
+
+  private void complete(List<QueuedEvent> events, AsyncResult<UpdateResult> reply) {
+    synchronized (this) {
+      writing -= events.size();
+    }
+    AsyncResult<Void> result = reply.failed() ? Future.failedFuture(reply.cause()) : Future.succeededFuture();
+    events.forEach(event -> event.writeHandler.handle(result));
+  }
+
+  private static class QueuedEvent {
+    private final String id;
+    private final JsonObject event;
+    private final Handler<AsyncResult<Void>> writeHandler;
+
+    private QueuedEvent(String id, JsonObject event, Handler<AsyncResult<Void>> writeHandler) {
+      this.id = id;
+      this.event = event;
+      this.writeHandler = writeHandler;
+    }
+  }
+}
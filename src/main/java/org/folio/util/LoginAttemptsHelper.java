@@ -4,28 +4,23 @@ import io.vertx.core.AsyncResult;
 import io.vertx.core.Future;
 import io.vertx.core.Handler;
 import io.vertx.core.http.HttpClient;
-import io.vertx.core.http.HttpClientOptions;
 import io.vertx.core.http.HttpClientRequest;
 import io.vertx.core.json.JsonObject;
 import io.vertx.core.logging.Logger;
 import io.vertx.core.logging.LoggerFactory;
-import io.vertx.ext.sql.UpdateResult;
+import io.vertx.ext.sql.ResultSet;
 import org.apache.commons.lang.time.DateFormatUtils;
 import org.folio.rest.jaxrs.model.LoginAttempts;
 import org.folio.rest.jaxrs.resource.Authn;
 import org.folio.rest.persist.Criteria.Criteria;
 import org.folio.rest.persist.Criteria.Criterion;
 import org.folio.rest.persist.PostgresClient;
-import org.folio.rest.persist.interfaces.Results;
 
 import javax.ws.rs.core.Response;
 import java.net.URLEncoder;
 import java.util.Date;
-import java.util.List;
 import java.util.UUID;
 
-import static org.folio.rest.RestVerticle.MODULE_SPECIFIC_ARGS;
-import static org.folio.rest.impl.LoginAPI.INTERNAL_ERROR;
 import static org.folio.rest.impl.LoginAPI.OKAPI_TENANT_HEADER;
 import static org.folio.rest.impl.LoginAPI.OKAPI_TOKEN_HEADER;
 
@@ -42,7 +37,16 @@ public class LoginAttemptsHelper {
   private static final String LOGIN_ATTEMPTS_USERID_FIELD = "'userId'";
   private static final Logger logger = LoggerFactory.getLogger(LoginAttemptsHelper.class);
   private static final String JSON_TYPE = "application/json";
-  private static final String VALUE = "value";
+  private static final String DATE_FORMAT = "yyyy-MM-dd'T'HH:mm:ss.SSSZ";
+  private static final String LAST_ATTEMPT_SQL = "(CASE WHEN jsonb_typeof(attempts.jsonb->'lastAttempt') = 'number' "
+    + "THEN to_timestamp((attempts.jsonb->>'lastAttempt')::bigint / 1000.0) "
+    + "ELSE (attempts.jsonb->>'lastAttempt')::timestamptz END)";
+  private static final String INCREMENT_ATTEMPT_COUNT_SQL = "CASE WHEN %s < now() - interval '%d minutes' "
+    + "THEN 1 ELSE (attempts.jsonb->>'attemptCount')::int + 1 END";
+  private static final String UPSERT_ATTEMPT_SQL = "INSERT INTO %s AS attempts (_id, jsonb) VALUES ('%s', '%s'::jsonb) "
+    + "ON CONFLICT ((jsonb->>'userId')) DO UPDATE SET jsonb = attempts.jsonb || jsonb_build_object("
+    + "'attemptCount', %s, 'lastAttempt', EXCLUDED.jsonb->'lastAttempt') "
+    + "RETURNING (attempts.jsonb->>'attemptCount')::int";
 
   /**
    * Method build criteria for lookup Login Attempts for user by user id
@@ -59,88 +63,69 @@ public class LoginAttemptsHelper {
   }
 
   /**
-   * @return - async result for saving login attempt
-   */
-  private static Handler<AsyncResult<String>> saveAttemptHandler(Handler<AsyncResult<Response>> asyncResultHandler) {
-    return saveAttempt -> {
-      if (saveAttempt.failed()) {
-        String message = "Saving record failed: " + saveAttempt.cause().getLocalizedMessage();
-        logger.error(message, saveAttempt.cause());
-        asyncResultHandler.handle(Future.succeededFuture(
-          Authn.PostAuthnLoginResponse.respond500WithTextPlain(message)));
-      }
-    };
-  }
-
-  /**
-   * @return - async result for updating login attempt
-   */
-  private static Handler<AsyncResult<UpdateResult>> updateAttemptHandler(Handler<AsyncResult<Response>> asyncResultHandler) {
-    return updateAttempt -> {
-      if (updateAttempt.failed()) {
-        String message = "Saving record failed: " + updateAttempt.cause().getLocalizedMessage();
-        logger.error(message, updateAttempt.cause());
-        asyncResultHandler.handle(Future.succeededFuture(
-          Authn.PostAuthnLoginResponse.respond500WithTextPlain(message)));
-      }
-    };
-  }
-
-
-  /**
-   * Method save login attempt object to database
+   * Increments the failed login attempts counter of the user with a single upsert statement,
+   * or in the {@link LoginAttemptsStore} when it is enabled.
+   * The counter restarts from 1 when the last attempt is older than the fail timeout,
+   * so concurrent failed logins of one user never lose increments.
    *
-   * @param pgClient     - client of postgres database
-   * @param loginAttempt - login attempt entity
+   * @param userId      - user id
+   * @param tenantId    - tenant id
+   * @param failTimeout - timeout in minutes after which failed login attempts are dropped
+   * @param pgClient    - postgres client
+   * @return - future with the new attempts count
    */
-  private static void saveAttempt(PostgresClient pgClient, LoginAttempts loginAttempt,
-                                  Handler<AsyncResult<Response>> asyncResultHandler,
-                                  Handler<AsyncResult<String>> replyHandler) {
-    try {
-      pgClient.save(TABLE_NAME_LOGIN_ATTEMPTS, loginAttempt.getId(), loginAttempt, replyHandler);
-    } catch (Exception e) {
-      logger.error("Error with postgresclient on saving login attempt during post login request: " + e.getLocalizedMessage());
-      asyncResultHandler.handle(Future.succeededFuture(Authn.PostAuthnLoginResponse
-        .respond500WithTextPlain(INTERNAL_ERROR)));
+  public static Future<Integer> incrementAttempts(String userId, String tenantId, int failTimeout,
+                                                  PostgresClient pgClient) {
+    LoginAttemptsStore store = LoginAttemptsStore.getInstance();
+    if (store.isEnabled()) {
+      return store.increment(userId, tenantId, failTimeout, pgClient);
     }
+    String attemptCount = String.format(INCREMENT_ATTEMPT_COUNT_SQL, LAST_ATTEMPT_SQL, failTimeout);
+    return upsertAttempt(buildLoginAttemptsObject(userId, 1), attemptCount, tenantId, pgClient);
   }
 
   /**
-   * Method update login attempt object to database
+   * Drops the failed login attempts counter of the user with a single upsert statement,
+   * or in the {@link LoginAttemptsStore} when it is enabled
    *
-   * @param pgClient     - client of postgres database
-   * @param loginAttempt - login attempt entity for update
+   * @param userId   - user id
+   * @param tenantId - tenant id
+   * @param pgClient - postgres client
+   * @return - future with the new attempts count
    */
-  private static void updateAttempt(PostgresClient pgClient, LoginAttempts loginAttempt,
-                                    Handler<AsyncResult<Response>> asyncResultHandler,
-                                    Handler<AsyncResult<UpdateResult>> replyHandler) {
-    try {
-      pgClient.update(TABLE_NAME_LOGIN_ATTEMPTS, loginAttempt, loginAttempt.getId(), replyHandler);
-    } catch (Exception e) {
-      logger.error("Error with postgresclient on saving login attempt during post login request: " + e.getLocalizedMessage());
-      asyncResultHandler.handle(Future.succeededFuture(Authn.PostAuthnLoginResponse
-        .respond500WithTextPlain(INTERNAL_ERROR)));
+  public static Future<Integer> resetAttempts(String userId, String tenantId, PostgresClient pgClient) {
+    LoginAttemptsStore store = LoginAttemptsStore.getInstance();
+    if (store.isEnabled()) {
+      return store.reset(userId, tenantId, pgClient);
     }
+    return upsertAttempt(buildLoginAttemptsObject(userId, 0), "0", tenantId, pgClient);
   }
 
   /**
-   * Method get login attempt from database by user id and provide callback for use this data
-   *
-   * @param userId       - user id for find login attempt entity
-   * @param pgClient     - postgres client
-   * @param replyHandler - async result handler for processing login attempt entity
+   * Inserts the login attempt record or, when the user already has one,
+   * updates its count with the given expression, and returns the resulting count
    */
-  public static void getLoginAttemptsByUserId(String userId, PostgresClient pgClient,
-                                              Handler<AsyncResult<Response>> asyncResultHandler,
-                                              Handler<AsyncResult<Results<LoginAttempts>>> replyHandler) {
+  private static Future<Integer> upsertAttempt(LoginAttempts loginAttempt, String attemptCount, String tenantId,
+                                               PostgresClient pgClient) {
+    Future<ResultSet> future = Future.future();
     try {
-      pgClient.get(TABLE_NAME_LOGIN_ATTEMPTS, LoginAttempts.class, buildCriteriaForUserAttempts(userId),
-        true, false, replyHandler);
+      String table = String.format("%s.%s", PostgresClient.convertToPsqlStandard(tenantId), TABLE_NAME_LOGIN_ATTEMPTS);
+      String sql = String.format(UPSERT_ATTEMPT_SQL, table, loginAttempt.getId(),
+        toJson(loginAttempt).encode().replace("'", "''"), attemptCount);
+      pgClient.select(sql, future.completer());
     } catch (Exception e) {
-      logger.error("Error with postgres client on getting login attempt during post login request: " + e.getLocalizedMessage());
-      asyncResultHandler.handle(Future.succeededFuture(Authn.PostAuthnLoginResponse
-        .respond500WithTextPlain(INTERNAL_ERROR)));
+      logger.error("Error with postgres client on upserting login attempt: " + e.getLocalizedMessage());
+      future.fail(e);
     }
+    return future.map(resultSet -> resultSet.getResults().get(0).getInteger(0));
+  }
+
+  private static JsonObject toJson(LoginAttempts loginAttempt) {
+    return new JsonObject()
+      .put("id", loginAttempt.getId())
+      .put("userId", loginAttempt.getUserId())
+      .put("attemptCount", loginAttempt.getAttemptCount())
+      .put("lastAttempt", DateFormatUtils.formatUTC(loginAttempt.getLastAttempt(), DATE_FORMAT));
   }
 
   /**
@@ -158,138 +143,22 @@ public class LoginAttemptsHelper {
   }
 
   /**
-   * @param attempts - Login Attempts user object for deciding
-   *                 need to block user after fail login or not
+   * @param attemptCount - failed login attempts count of the user
+   * @param policy       - tenant's login policy
    * @return - boolean value that describe need block user or not
    */
-  private static Future<Boolean> needToUserBlock(LoginAttempts attempts, OkapiConnectionParams params) {
-    Future<Boolean> future = Future.future();
-    try {
-      getLoginConfig(LOGIN_ATTEMPTS_CODE, params).setHandler(res ->
-        getLoginConfig(LOGIN_ATTEMPTS_TIMEOUT_CODE, params).setHandler(handle ->
-          getLoginConfig(LOGIN_ATTEMPTS_TO_WARN_CODE, params).setHandler(res1 -> {
-            boolean result = false;
-
-            int loginTimeoutConfigValue = getValue(handle, LOGIN_ATTEMPTS_TIMEOUT_CODE, 10);
-            int loginFailConfigValue = getValue(res, LOGIN_ATTEMPTS_CODE, 5);
-            int loginFailToWarnValue = getValue(res1, LOGIN_ATTEMPTS_TO_WARN_CODE, 3);
-
-            if (loginFailConfigValue != 0) {
-              // get time diff between current date and last login attempt
-              long diff = new Date().getTime() - attempts.getLastAttempt().getTime();
-              // calc date diff in minutes
-              long diffMinutes = diff / (60 * 1000) % 60;
-              if (diffMinutes > loginTimeoutConfigValue) {
-                attempts.setAttemptCount(0);
-              } else if (attempts.getAttemptCount() >= loginFailConfigValue && diffMinutes < loginTimeoutConfigValue) {
-                result = true;
-              }
-            }
-            future.complete(result);
-          })));
-    } catch (Exception e) {
-      logger.error(e);
-      future.complete(false);
-    }
-
-    return future;
-
-  }
-
-  private static int getValue(AsyncResult<JsonObject> res, String key, int defaultValue) {
-    if (res.failed()) {
-      logger.warn(res.cause());
-      return Integer.parseInt(MODULE_SPECIFIC_ARGS
-        .getOrDefault(key, String.valueOf(defaultValue)));
-    } else try {
-      return res.result().getInteger(VALUE);
-    } catch (Exception e) {
-      logger.error(e);
-    }
-    return defaultValue;
+  private static boolean needToUserBlock(int attemptCount, LoginPolicy policy) {
+    return policy.getFailAttempts() != 0 && attemptCount >= policy.getFailAttempts();
   }
 
   /**
-   * Load config object by code for login module
-   *
-   * @param configCode - configuration code
-   * @param params     - okapi configuration params
-   * @return - json object with configs
-   */
-  private static Future<JsonObject> getLoginConfig(String configCode, OkapiConnectionParams params) {
-    Future<JsonObject> future = Future.future();
-    HttpClient client = getHttpClient(params);
-    String requestURL;
-    String requestToken = params.getToken() != null ? params.getToken() : "";
-    try {
-      requestURL = params.getOkapiUrl() + "/configurations/entries?query=" +
-        "code==" + URLEncoder.encode(configCode, "UTF-8");
-    } catch (Exception e) {
-      logger.error("Error building request URL: " + e.getLocalizedMessage());
-      future.fail(e);
-      return future;
-    }
-    try {
-      HttpClientRequest request = client.getAbs(requestURL);
-      request.putHeader(OKAPI_TENANT_HEADER, params.getTenantId())
-        .putHeader(OKAPI_TOKEN_HEADER, requestToken)
-        .putHeader("Content-type", JSON_TYPE)
-        .putHeader("Accept", JSON_TYPE);
-      request.handler(res -> {
-        if (res.statusCode() != 200) {
-          res.bodyHandler(buf -> {
-            String message = "Expected status code 200, got '" + res.statusCode() +
-              "' :" + buf.toString();
-            future.fail(message);
-          });
-        } else {
-          res.bodyHandler(buf -> {
-            try {
-              JsonObject resultObject = buf.toJsonObject();
-              if (!resultObject.containsKey("totalRecords") ||
-                !resultObject.containsKey("configs")) {
-                future.fail("Error, missing field(s) 'totalRecords' and/or 'configs' in config response object");
-              } else {
-                int recordCount = resultObject.getInteger("totalRecords");
-                if (recordCount > 1) {
-                  future.fail("Bad results from configs");
-                } else if (recordCount == 0) {
-                  String errorMessage = "No config found by code " + configCode;
-                  logger.error(errorMessage);
-                  future.fail(errorMessage);
-                } else {
-                  future.complete(resultObject.getJsonArray("configs").getJsonObject(0));
-                }
-              }
-            } catch (Exception e) {
-              logger.error(e);
-              future.fail(e);
-            }
-          });
-        }
-      });
-      request.setTimeout(params.getTimeout());
-      request.exceptionHandler(future::fail);
-      request.end();
-    } catch (Exception e) {
-      String message = "Configs lookup failed: " + e.getLocalizedMessage();
-      logger.error(message, e);
-      future.fail(message);
-    }
-    return future;
-  }
-
-  /**
-   * Prepare HttpClient from OkapiConnection params
+   * Get the shared HttpClient for the Vert.x instance of OkapiConnection params
    *
    * @param params - Okapi connection params
    * @return - Vertx Http Client
    */
   private static HttpClient getHttpClient(OkapiConnectionParams params) {
-    HttpClientOptions options = new HttpClientOptions();
-    options.setConnectTimeout(params.getTimeout());
-    options.setIdleTimeout(params.getTimeout());
-    return params.getVertx().createHttpClient(options);
+    return HttpClientRegistry.getClient(params.getVertx());
   }
 
   /**
@@ -299,7 +168,12 @@ public class LoginAttemptsHelper {
    * @param params - object with connection params
    */
   private static Future<Void> updateUser(JsonObject user, OkapiConnectionParams params) {
+    Future<Void> result = Future.future();
     Future<Void> future = Future.future();
+    future.setHandler(ar -> {
+      UserCache.getInstance().invalidate(params.getTenantId(), user);
+      result.handle(ar);
+    });
     HttpClient client = getHttpClient(params);
     String requestURL;
     String requestToken = params.getToken() != null ? params.getToken() : "";
@@ -309,7 +183,7 @@ public class LoginAttemptsHelper {
     } catch (Exception e) {
       logger.error("Error building request URL: " + e.getLocalizedMessage());
       future.fail(e);
-      return future;
+      return result;
     }
     try {
       HttpClientRequest request = client.putAbs(requestURL, res -> {
@@ -345,7 +219,7 @@ public class LoginAttemptsHelper {
       logger.error(message, e);
       future.fail(message);
     }
-    return future;
+    return result;
   }
 
   /**
@@ -356,103 +230,89 @@ public class LoginAttemptsHelper {
    * @param pgClient           - postgres client
    * @param asyncResultHandler - request async handler
    */
-  public static Handler<AsyncResult<Results<LoginAttempts>>> onLoginFailAttemptHandler(JsonObject userObject,
-                                                                                       OkapiConnectionParams params,
-                                                                                       PostgresClient pgClient,
-                                                                                       Handler<AsyncResult<Response>> asyncResultHandler) {
-    return getAttemptReply -> {
-      if (getAttemptReply.failed()) {
-        logger.debug("Error in PostgresClient get operation " + getAttemptReply.cause().getLocalizedMessage());
-        asyncResultHandler.handle(Future.succeededFuture(Authn.PostAuthnLoginResponse
-          .respond500WithTextPlain(INTERNAL_ERROR)));
-      } else {
-        List<LoginAttempts> attempts = getAttemptReply.result().getResults();
-        String userId = userObject.getString("id");
-        // if there no attempts record for user, create one
-        if (attempts.isEmpty()) {
-          // save new attempt record to database
-          saveAttempt(pgClient, buildLoginAttemptsObject(userId, 1),
-            asyncResultHandler, saveAttemptHandler(asyncResultHandler));
-          logLoginAttempt(LoginEvent.LOGIN_FAIL, userId, 1);
-
+  public static void onLoginFailAttempt(JsonObject userObject, OkapiConnectionParams params, PostgresClient pgClient,
+                                        Handler<AsyncResult<Response>> asyncResultHandler) {
+    String userId = userObject.getString("id");
+    String tenantId = params.getTenantId();
+    LoginPolicyLoader.getLoginPolicy(params).setHandler(policyResult -> {
+      LoginPolicy policy = policyResult.result();
+      incrementAttempts(userId, tenantId, policy.getFailTimeout(), pgClient).setHandler(incrementResult -> {
+        if (incrementResult.failed()) {
+          String message = "Saving record failed: " + incrementResult.cause().getLocalizedMessage();
+          logger.error(message, incrementResult.cause());
+          asyncResultHandler.handle(Future.succeededFuture(Authn.PostAuthnLoginResponse
+            .respond500WithTextPlain(message)));
+          return;
+        }
+        Integer attemptCount = incrementResult.result();
+        if (!needToUserBlock(attemptCount, policy)) {
+          logLoginAttempt(LoginEvent.LOGIN_FAIL, userId, attemptCount);
           asyncResultHandler.handle(Future.succeededFuture(
             /*Authn.PostAuthnLoginResponse.respond422WithApplicationJson(
               LoginAPI.getErrors("Password does not match", LoginAPI.CODE_PASSWORD_INCORRECT,
                 new ImmutablePair<>(LoginAPI.PARAM_USERNAME, userObject.getString("username"))))*/
             Authn.PostAuthnLoginResponse.respond400WithTextPlain("Password does not match")
           ));
-        } else {
-          // check users login attempts
-          LoginAttempts attempt = attempts.get(0);
-          attempt.setAttemptCount(attempt.getAttemptCount() + 1);
-          attempt.setLastAttempt(new Date());
-          needToUserBlock(attempt, params)
-            .setHandler(needBlockHandler -> {
-              if (needBlockHandler.result()) {
-                // lock user account
-                JsonObject user = userObject.copy();
-                user.put("active", false);
-                updateUser(user, params)
-                  .setHandler(onUpdate -> {
-                    if (onUpdate.failed()) {
-                      String errMsg = "Error on user update: " + onUpdate.cause().getLocalizedMessage();
-                      logger.error(errMsg);
-                      asyncResultHandler.handle(Future.succeededFuture(Authn.PostAuthnLoginResponse
-                        .respond500WithTextPlain(errMsg)));
-                    } else {
-                      attempt.setAttemptCount(0);
-                      attempt.setLastAttempt(new Date());
-                      updateAttempt(pgClient, attempt, asyncResultHandler, updateAttemptHandler(asyncResultHandler));
-                      logLoginAttempt(LoginEvent.LOGIN_FAIL_BLOCK_USER, userId, attempt.getAttemptCount());
-                    }
-                  });
-              } else {
-                Integer attemptCount = attempt.getAttemptCount();
-                updateAttempt(pgClient, attempt, asyncResultHandler, updateAttemptHandler(asyncResultHandler));
-                logLoginAttempt(LoginEvent.LOGIN_FAIL, userId, attemptCount);
-              }
+          return;
+        }
+        // lock user account
+        JsonObject user = userObject.copy();
+        user.put("active", false);
+        updateUser(user, params)
+          .compose(v -> resetAttempts(userId, tenantId, pgClient))
+          .setHandler(onUpdate -> {
+            if (onUpdate.failed()) {
+              String errMsg = "Error on user update: " + onUpdate.cause().getLocalizedMessage();
+              logger.error(errMsg);
+              asyncResultHandler.handle(Future.succeededFuture(Authn.PostAuthnLoginResponse
+                .respond500WithTextPlain(errMsg)));
+            } else {
+              UserLockouts.getInstance().lock(tenantId, userObject, policy.getFailTimeout());
+              logLoginAttempt(LoginEvent.LOGIN_FAIL_BLOCK_USER, userId, onUpdate.result());
               asyncResultHandler.handle(Future.succeededFuture(
                 Authn.PostAuthnLoginResponse.respond400WithTextPlain("Password does not match")
               ));
-            });
-        }
-      }
-    };
+            }
+          });
+      });
+    });
   }
 
   /**
-   * Handle users success login
+   * Handle users success login, drops the failed login attempts counter
    *
-   * @param userObject         - Json user object
-   * @param pgClient           - postgres client
-   * @param asyncResultHandler - request async handler
+   * @param userObject - Json user object
+   * @param tenantId   - tenant id
+   * @param pgClient   - postgres client
+   * @return - future completed when the counter is dropped
    */
-  public static Handler<AsyncResult<Results<LoginAttempts>>> onLoginSuccessAttemptHandler(JsonObject userObject,
-                                                                                          PostgresClient pgClient,
-                                                                                          Handler<AsyncResult<Response>> asyncResultHandler) {
-    return getAttemptReply -> {
-      if (getAttemptReply.failed()) {
-        logger.debug("Error in PostgresClient get operation " + getAttemptReply.cause().getLocalizedMessage());
-        asyncResultHandler.handle(Future.succeededFuture(Authn.PostAuthnLoginResponse
-          .respond500WithTextPlain(INTERNAL_ERROR)));
-      } else {
-        List<LoginAttempts> attempts = getAttemptReply.result().getResults();
-        String userId = userObject.getString("id");
-        // if there no attempts record for user, create one
-        if (attempts.isEmpty()) {
-          // save new attempt record to database
-          saveAttempt(pgClient, buildLoginAttemptsObject(userId, 0),
-            asyncResultHandler, saveAttemptHandler(asyncResultHandler));
-        } else {
-          // drops user login attempts
-          LoginAttempts attempt = attempts.get(0);
-          attempt.setAttemptCount(0);
-          attempt.setLastAttempt(new Date());
-          updateAttempt(pgClient, attempt, asyncResultHandler, updateAttemptHandler(asyncResultHandler));
-        }
-        logLoginAttempt(LoginEvent.LOGIN_SUCCESSFUL, userId, 0);
-      }
-    };
+  public static Future<Void> onLoginSuccessAttempt(JsonObject userObject, String tenantId, PostgresClient pgClient) {
+    return onLoginSuccessAttempt(userObject, tenantId, null, pgClient);
+  }
+
+  /**
+   * Handle users success login, drops the failed login attempts counter
+   * unless the counter read with the credentials is already 0
+   *
+   * @param userObject   - Json user object
+   * @param tenantId     - tenant id
+   * @param attemptCount - failed login attempts count read with the credentials, null if unknown or absent
+   * @param pgClient     - postgres client
+   * @return - future completed when the counter is dropped
+   */
+  public static Future<Void> onLoginSuccessAttempt(JsonObject userObject, String tenantId, Integer attemptCount,
+                                                   PostgresClient pgClient) {
+    String userId = userObject.getString("id");
+    UserLockouts.getInstance().unlock(tenantId, userObject);
+    if (attemptCount != null && attemptCount == 0 && !LoginAttemptsStore.getInstance().isEnabled()) {
+      logLoginAttempt(LoginEvent.LOGIN_SUCCESSFUL, userId, attemptCount);
+      return Future.succeededFuture();
+    }
+    return resetAttempts(userId, tenantId, pgClient)
+      .map(resetCount -> {
+        logLoginAttempt(LoginEvent.LOGIN_SUCCESSFUL, userId, resetCount);
+        return null;
+      });
   }
 
   /**
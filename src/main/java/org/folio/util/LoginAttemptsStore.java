@@ -0,0 +1,288 @@
+package org.folio.util;
+
+import io.vertx.core.CompositeFuture;
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonObject;
+import io.vertx.core.logging.Logger;
+import io.vertx.core.logging.LoggerFactory;
+import org.apache.commons.lang.time.DateFormatUtils;
+import org.folio.rest.jaxrs.model.LoginAttempts;
+import org.folio.rest.persist.PostgresClient;
+import org.folio.rest.persist.interfaces.Results;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.IntUnaryOperator;
+import java.util.function.ToIntFunction;
+import java.util.stream.Collectors;
+
+import static org.folio.rest.RestVerticle.MODULE_SPECIFIC_ARGS;
+import static org.folio.util.LoginAttemptsHelper.TABLE_NAME_LOGIN_ATTEMPTS;
+import static org.folio.util.LoginAttemptsHelper.buildCriteriaForUserAttempts;
+
+/**
+ * Optional in-memory store of the login attempt counters.
+ * Counters are updated in memory and the changed ones are flushed to the auth_attempts table
+ * in periodic batched upserts, so logins do not write to the database.
+ * The store is disabled by default and turned on with the {@code login.attempts.memory.enabled} module arg.
+ * Counters are local to the module instance, so it fits single instance deployments or sticky routing.
+ * Counters that are written and whose failed attempts window has passed are evicted after a successful flush,
+ * they are read from the database again on the next login of the user.
+ */
+public class LoginAttemptsStore {
+
+  private static final String MEMORY_ENABLED = "login.attempts.memory.enabled";
+  private static final String FLUSH_INTERVAL = "login.attempts.flush.interval";
+  private static final String DATE_FORMAT = "yyyy-MM-dd'T'HH:mm:ss.SSSZ";
+  // default login.fail.timeout, used for counters that were not incremented yet
+  private static final long DEFAULT_WINDOW_MILLIS = TimeUnit.MINUTES.toMillis(10);
+  private static final String BATCH_UPSERT_SQL = "INSERT INTO %s AS attempts (_id, jsonb) VALUES %s "
+    + "ON CONFLICT ((jsonb->>'userId')) DO UPDATE SET jsonb = attempts.jsonb || jsonb_build_object("
+    + "'attemptCount', (EXCLUDED.jsonb->>'attemptCount')::int, 'lastAttempt', EXCLUDED.jsonb->'lastAttempt')";
+
+  private static final Logger logger = LoggerFactory.getLogger(LoginAttemptsStore.class);
+  private static LoginAttemptsStore instance;
+
+  private final Map<String, Map<String, Counter>> tenantCounters = new ConcurrentHashMap<>();
+  private final boolean enabled;
+  private final long flushIntervalMillis;
+  private Vertx vertx;
+
+  private LoginAttemptsStore(boolean enabled, long flushIntervalMillis) {
+    this.enabled = enabled;
+    this.flushIntervalMillis = flushIntervalMillis;
+  }
+
+  public static synchronized LoginAttemptsStore getInstance() {
+    if (instance == null) {
+      instance = new LoginAttemptsStore(
+        Boolean.parseBoolean(MODULE_SPECIFIC_ARGS.getOrDefault(MEMORY_ENABLED, "false")),
+        Long.parseLong(MODULE_SPECIFIC_ARGS.getOrDefault(FLUSH_INTERVAL, "1000")));
+    }
+    return instance;
+  }
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * Starts the periodic flush of changed counters
+   *
+   * @param vertx - Vert.x instance
+   */
+  public synchronized void start(Vertx vertx) {
+    if (!enabled || this.vertx != null) {
+      return;
+    }
+    this.vertx = vertx;
+    vertx.setPeriodic(flushIntervalMillis, id -> flush());
+  }
+
+  /**
+   * Increments the failed login attempts counter of the user in memory
+   *
+   * @param userId      - user id
+   * @param tenantId    - tenant id
+   * @param failTimeout - timeout in minutes after which failed login attempts are dropped
+   * @param pgClient    - postgres client used to seed the counter on first use
+   * @return - future with the new attempts count
+   */
+  public Future<Integer> increment(String userId, String tenantId, int failTimeout, PostgresClient pgClient) {
+    long timeoutMillis = TimeUnit.MINUTES.toMillis(failTimeout);
+    return getCounter(userId, tenantId, pgClient)
+      .map(loaded -> update(userId, tenantId, loaded, counter -> counter.increment(timeoutMillis)));
+  }
+
+  /**
+   * Drops the failed login attempts counter of the user in memory
+   *
+   * @param userId   - user id
+   * @param tenantId - tenant id
+   * @param pgClient - postgres client used to seed the counter on first use
+   * @return - future with the new attempts count
+   */
+  public Future<Integer> reset(String userId, String tenantId, PostgresClient pgClient) {
+    return getCounter(userId, tenantId, pgClient)
+      .map(loaded -> update(userId, tenantId, loaded, counter -> counter.update(count -> 0)));
+  }
+
+  /**
+   * Updates the counter of the user atomically with its eviction, a counter evicted meanwhile is put back,
+   * it holds the state written to the database
+   */
+  private int update(String userId, String tenantId, Counter loaded, ToIntFunction<Counter> action) {
+    int[] count = new int[1];
+    getCounters(tenantId).compute(userId, (id, existing) -> {
+      Counter counter = existing != null ? existing : loaded;
+      count[0] = action.applyAsInt(counter);
+      return counter;
+    });
+    return count[0];
+  }
+
+  /**
+   * Returns the login attempts of the user, reading through to the database when they are not in memory
+   *
+   * @param userId   - user id
+   * @param tenantId - tenant id
+   * @param pgClient - postgres client
+   * @return - future with the login attempts or null when the user has none
+   */
+  public Future<LoginAttempts> get(String userId, String tenantId, PostgresClient pgClient) {
+    Counter counter = getCounters(tenantId).get(userId);
+    if (counter != null) {
+      return Future.succeededFuture(counter.toLoginAttempts());
+    }
+    return loadAttempts(userId, pgClient).map(attempts -> {
+      if (attempts != null) {
+        getCounters(tenantId).putIfAbsent(userId, new Counter(attempts));
+      }
+      return attempts;
+    });
+  }
+
+  private Future<Counter> getCounter(String userId, String tenantId, PostgresClient pgClient) {
+    Map<String, Counter> counters = getCounters(tenantId);
+    Counter counter = counters.get(userId);
+    if (counter != null) {
+      return Future.succeededFuture(counter);
+    }
+    return loadAttempts(userId, pgClient).map(attempts -> {
+      Counter loaded = attempts != null ? new Counter(attempts) : new Counter(userId);
+      Counter existing = counters.putIfAbsent(userId, loaded);
+      return existing != null ? existing : loaded;
+    });
+  }
+
+  private Future<LoginAttempts> loadAttempts(String userId, PostgresClient pgClient) {
+    Future<Results<LoginAttempts>> future = Future.future();
+    try {
+      pgClient.get(TABLE_NAME_LOGIN_ATTEMPTS, LoginAttempts.class, buildCriteriaForUserAttempts(userId),
+        false, false, future.completer());
+    } catch (Exception e) {
+      future.fail(e);
+    }
+    return future.map(results -> results.getResults().isEmpty() ? null : results.getResults().get(0));
+  }
+
+  private Map<String, Counter> getCounters(String tenantId) {
+    return tenantCounters.computeIfAbsent(tenantId, t -> new ConcurrentHashMap<>());
+  }
+
+  /**
+   * Writes changed counters of all tenants to the database, one batched upsert per tenant
+   *
+   * @return - future completed when all batches are written
+   */
+  public Future<Void> flush() {
+    List<Future> flushes = new ArrayList<>();
+    tenantCounters.forEach((tenantId, counters) -> {
+      List<Counter> dirty = counters.values().stream()
+        .filter(counter -> counter.dirty.compareAndSet(true, false))
+        .collect(Collectors.toList());
+      if (!dirty.isEmpty()) {
+        flushes.add(flushTenant(tenantId, dirty));
+      }
+    });
+    return CompositeFuture.join(flushes).map(v -> {
+      evictExpired();
+      return null;
+    });
+  }
+
+  /**
+   * Drops the written counters whose failed attempts window has passed
+   */
+  private void evictExpired() {
+    long now = System.currentTimeMillis();
+    tenantCounters.values().forEach(counters -> counters.keySet().forEach(userId ->
+      counters.computeIfPresent(userId, (id, counter) -> counter.isExpired(now) ? null : counter)));
+  }
+
+  private Future<Void> flushTenant(String tenantId, List<Counter> dirty) {
+    Future<Void> future = Future.future();
+    String values = dirty.stream()
+      .map(counter -> String.format("('%s', '%s'::jsonb)", counter.id,
+        counter.toJson().encode().replace("'", "''")))
+      .collect(Collectors.joining(", "));
+    String table = String.format("%s.%s", PostgresClient.convertToPsqlStandard(tenantId), TABLE_NAME_LOGIN_ATTEMPTS);
+    PostgresClient.getInstance(vertx, tenantId).execute(String.format(BATCH_UPSERT_SQL, table, values), reply -> {
+      if (reply.failed()) {
+        logger.error("Flushing " + dirty.size() + " login attempt counters of tenant " + tenantId + " failed: "
+          + reply.cause().getMessage());
+        // keep the changes for the next flush
+        dirty.forEach(counter -> counter.dirty.set(true));
+        future.fail(reply.cause());
+      } else {
+        future.complete();
+      }
+    });
+    return future;
+  }
+
+  private static class Counter {
+    private final String id;
+    private final String userId;
+    private final AtomicBoolean dirty = new AtomicBoolean();
+    private int count;
+    private volatile long lastAttempt;
+    private volatile long windowMillis = DEFAULT_WINDOW_MILLIS;
+
+    private Counter(String userId) {
+      this.id = UUID.randomUUID().toString();
+      this.userId = userId;
+      this.lastAttempt = System.currentTimeMillis();
+    }
+
+    private Counter(LoginAttempts attempts) {
+      this.id = attempts.getId();
+      this.userId = attempts.getUserId();
+      this.count = attempts.getAttemptCount();
+      this.lastAttempt = attempts.getLastAttempt() != null
+        ? attempts.getLastAttempt().getTime() : System.currentTimeMillis();
+    }
+
+    private synchronized int update(IntUnaryOperator operator) {
+      count = operator.applyAsInt(count);
+      lastAttempt = System.currentTimeMillis();
+      dirty.set(true);
+      return count;
+    }
+
+    private synchronized int increment(long timeoutMillis) {
+      windowMillis = timeoutMillis;
+      return update(current -> System.currentTimeMillis() - lastAttempt > timeoutMillis ? 1 : current + 1);
+    }
+
+    /**
+     * @return - true if the counter is written and its failed attempts window has passed
+     */
+    private synchronized boolean isExpired(long now) {
+      return !dirty.get() && now - lastAttempt > windowMillis;
+    }
+
+    private synchronized LoginAttempts toLoginAttempts() {
+      return new LoginAttempts()
+        .withId(id)
+        .withUserId(userId)
+        .withAttemptCount(count)
+        .withLastAttempt(new Date(lastAttempt));
+    }
+
+    private synchronized JsonObject toJson() {
+      return new JsonObject()
+        .put("id", id)
+        .put("userId", userId)
+        .put("attemptCount", count)
+        .put("lastAttempt", DateFormatUtils.formatUTC(lastAttempt, DATE_FORMAT));
+    }
+  }
+}
@@ -19,6 +19,11 @@ public class LoginConfigUtils {
   public static final String EVENT_LOG_API_MODULE = "EVENT_LOG";
   public static final String EVENT_LOG_API_CODE_STATUS = "STATUS";
   public static final String SNAPSHOTS_TABLE_EVENT_LOGS = "event_logs";
+  /**
+   * Failure code of the event log service when its write queue is full
+   */
+  public static final int EVENT_LOG_QUEUE_FULL_CODE = 429;
+  public static final int EVENT_LOG_TIMESTAMP_OUT_OF_RANGE_CODE = 400;
 
   /**
    * Tables
@@ -0,0 +1,78 @@
+package org.folio.util;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Immutable snapshot of the tenant's login related settings stored at mod-configuration
+ */
+public class LoginPolicy {
+
+  private final int failAttempts;
+  private final int failTimeout;
+  private final int failToWarnAttempts;
+  private final int passwordHistoryNumber;
+  private final boolean eventLogEnabled;
+  private final Set<String> eventLogCodes;
+
+  public LoginPolicy(int failAttempts, int failTimeout, int failToWarnAttempts, int passwordHistoryNumber,
+                     boolean eventLogEnabled, Set<String> eventLogCodes) {
+    this.failAttempts = failAttempts;
+    this.failTimeout = failTimeout;
+    this.failToWarnAttempts = failToWarnAttempts;
+    this.passwordHistoryNumber = passwordHistoryNumber;
+    this.eventLogEnabled = eventLogEnabled;
+    this.eventLogCodes = Collections.unmodifiableSet(new HashSet<>(eventLogCodes));
+  }
+
+  /**
+   * @return - number of failed login attempts before the user is blocked, 0 disables blocking
+   */
+  public int getFailAttempts() {
+    return failAttempts;
+  }
+
+  /**
+   * @return - timeout in minutes after which failed login attempts are dropped
+   */
+  public int getFailTimeout() {
+    return failTimeout;
+  }
+
+  /**
+   * @return - number of failed login attempts before the user is warned
+   */
+  public int getFailToWarnAttempts() {
+    return failToWarnAttempts;
+  }
+
+  /**
+   * @return - number of previous passwords that can not be reused
+   */
+  public int getPasswordHistoryNumber() {
+    return passwordHistoryNumber;
+  }
+
+  /**
+   * @return - true if event logging is enabled for the tenant
+   */
+  public boolean isEventLogEnabled() {
+    return eventLogEnabled;
+  }
+
+  /**
+   * @return - codes of the enabled log events
+   */
+  public Set<String> getEventLogCodes() {
+    return eventLogCodes;
+  }
+
+  /**
+   * @param eventCode - event code
+   * @return - true if event logging and the event code are enabled
+   */
+  public boolean isEventEnabled(String eventCode) {
+    return eventLogEnabled && eventLogCodes.contains(eventCode);
+  }
+}
@@ -0,0 +1,182 @@
+package org.folio.util;
+
+import io.vertx.core.Future;
+import io.vertx.core.http.HttpClientRequest;
+import io.vertx.core.logging.Logger;
+import io.vertx.core.logging.LoggerFactory;
+import org.folio.rest.jaxrs.model.Config;
+import org.folio.rest.jaxrs.model.Configurations;
+
+import java.net.URLEncoder;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.folio.rest.RestVerticle.MODULE_SPECIFIC_ARGS;
+import static org.folio.rest.impl.LoginAPI.OKAPI_TENANT_HEADER;
+import static org.folio.rest.impl.LoginAPI.OKAPI_TOKEN_HEADER;
+import static org.folio.services.impl.PasswordStorageServiceImpl.DEFAULT_PASSWORDS_HISTORY_NUMBER;
+import static org.folio.util.LoginAttemptsHelper.LOGIN_ATTEMPTS_CODE;
+import static org.folio.util.LoginAttemptsHelper.LOGIN_ATTEMPTS_TIMEOUT_CODE;
+import static org.folio.util.LoginAttemptsHelper.LOGIN_ATTEMPTS_TO_WARN_CODE;
+import static org.folio.util.LoginConfigUtils.EVENT_LOG_API_CODE_STATUS;
+import static org.folio.util.LoginConfigUtils.EVENT_LOG_API_MODULE;
+
+/**
+ * Loads all login related settings from mod-configuration with a single request
+ * and keeps them in a per-tenant {@link RefreshAheadCache}. The login attempts, password history
+ * and log event endpoints all read their settings from this one snapshot.
+ */
+public class LoginPolicyLoader {
+
+  public static final String PASSWORD_HISTORY_NUMBER_CONFIG = "password.history.number";
+  private static final String LOGIN_POLICY_CACHE_TTL = "login.policy.cache.ttl";
+  private static final String CONFIG_QUERY = String.format(
+    "code==(\"%s\" or \"%s\" or \"%s\") or configName==%s or module==%s",
+    LOGIN_ATTEMPTS_CODE, LOGIN_ATTEMPTS_TIMEOUT_CODE, LOGIN_ATTEMPTS_TO_WARN_CODE,
+    PASSWORD_HISTORY_NUMBER_CONFIG, EVENT_LOG_API_MODULE);
+  private static final String CONFIG_REQUEST_PATH = "/configurations/entries?limit=200&query=";
+  private static final String JSON_TYPE = "application/json";
+
+  private static final Logger logger = LoggerFactory.getLogger(LoginPolicyLoader.class);
+  private static final RefreshAheadCache<LoginPolicy> loginPolicyCache = new RefreshAheadCache<>("login policy",
+    Long.parseLong(MODULE_SPECIFIC_ARGS.getOrDefault(LOGIN_POLICY_CACHE_TTL, "60")) * 1000);
+
+  private LoginPolicyLoader() {
+    //not called
+  }
+
+  /**
+   * Returns the tenant's login policy from the in-memory cache,
+   * loading it from mod-configuration when it is absent or expired.
+   * The returned future never fails, default values are used when nothing could be loaded.
+   *
+   * @param params - okapi connection params
+   * @return - future with the login policy snapshot
+   */
+  public static Future<LoginPolicy> getLoginPolicy(OkapiConnectionParams params) {
+    Future<LoginPolicy> future = Future.future();
+    loginPolicyCache.get(params.getTenantId(), previous -> loadLoginPolicy(params)).setHandler(res -> {
+      if (res.failed()) {
+        logger.warn("Login policy lookup failed, using default values: " + res.cause().getMessage());
+        future.complete(defaultLoginPolicy());
+      } else {
+        future.complete(res.result());
+      }
+    });
+    return future;
+  }
+
+  /**
+   * Drops the tenant's cached login policy, the next lookup loads it from mod-configuration
+   *
+   * @param tenantId - tenant identifier
+   */
+  public static void invalidate(String tenantId) {
+    loginPolicyCache.invalidate(tenantId);
+  }
+
+  /**
+   * Loads login policy configs, password history number and event log configs in one request
+   *
+   * @param params - okapi connection params
+   * @return - future with the login policy
+   */
+  private static Future<LoginPolicy> loadLoginPolicy(OkapiConnectionParams params) {
+    Future<LoginPolicy> future = Future.future();
+    String requestToken = params.getToken() != null ? params.getToken() : "";
+    try {
+      String requestURL = params.getOkapiUrl() + CONFIG_REQUEST_PATH + URLEncoder.encode(CONFIG_QUERY, "UTF-8");
+      HttpClientRequest request = HttpClientRegistry.getClient(params.getVertx()).getAbs(requestURL);
+      request.putHeader(OKAPI_TENANT_HEADER, params.getTenantId())
+        .putHeader(OKAPI_TOKEN_HEADER, requestToken)
+        .putHeader("Content-type", JSON_TYPE)
+        .putHeader("Accept", JSON_TYPE);
+      request.handler(res -> res.bodyHandler(buf -> {
+        if (res.statusCode() != 200) {
+          future.fail("Expected status code 200, got '" + res.statusCode() + "' :" + buf.toString());
+          return;
+        }
+        try {
+          future.complete(parseLoginPolicy(buf.toJsonObject().mapTo(Configurations.class)));
+        } catch (Exception e) {
+          logger.error(e);
+          future.fail(e);
+        }
+      }));
+      request.setTimeout(params.getTimeout());
+      request.exceptionHandler(future::fail);
+      request.end();
+    } catch (Exception e) {
+      String message = "Configs lookup failed: " + e.getLocalizedMessage();
+      logger.error(message, e);
+      future.fail(message);
+    }
+    return future;
+  }
+
+  /**
+   * Builds the login policy from the configs returned by mod-configuration,
+   * settings that are missing keep their default values
+   *
+   * @param configurations - configs returned by mod-configuration
+   * @return - login policy
+   */
+  public static LoginPolicy parseLoginPolicy(Configurations configurations) {
+    LoginPolicy defaults = defaultLoginPolicy();
+    int failAttempts = defaults.getFailAttempts();
+    int failTimeout = defaults.getFailTimeout();
+    int failToWarnAttempts = defaults.getFailToWarnAttempts();
+    int passwordHistoryNumber = defaults.getPasswordHistoryNumber();
+    boolean eventLogEnabled = false;
+    Set<String> eventLogCodes = new HashSet<>();
+
+    for (Config config : configurations.getConfigs()) {
+      if (EVENT_LOG_API_MODULE.equals(config.getModule())) {
+        boolean enabled = Boolean.TRUE.equals(config.getEnabled());
+        if (EVENT_LOG_API_CODE_STATUS.equals(config.getCode())) {
+          eventLogEnabled = enabled;
+        }
+        if (enabled) {
+          eventLogCodes.add(config.getCode());
+        }
+      } else if (PASSWORD_HISTORY_NUMBER_CONFIG.equals(config.getConfigName())) {
+        passwordHistoryNumber = getValue(config, passwordHistoryNumber);
+      } else if (LOGIN_ATTEMPTS_CODE.equals(config.getCode())) {
+        failAttempts = getValue(config, failAttempts);
+      } else if (LOGIN_ATTEMPTS_TIMEOUT_CODE.equals(config.getCode())) {
+        failTimeout = getValue(config, failTimeout);
+      } else if (LOGIN_ATTEMPTS_TO_WARN_CODE.equals(config.getCode())) {
+        failToWarnAttempts = getValue(config, failToWarnAttempts);
+      }
+    }
+    return new LoginPolicy(failAttempts, failTimeout, failToWarnAttempts, passwordHistoryNumber,
+      eventLogEnabled, eventLogCodes);
+  }
+
+  private static int getValue(Config config, int defaultValue) {
+    try {
+      return Integer.parseInt(config.getValue());
+    } catch (Exception e) {
+      logger.error("Invalid value of config " + config.getCode() + ": " + config.getValue());
+      return defaultValue;
+    }
+  }
+
+  /**
+   * @return - login policy built from module specific args or default values
+   */
+  public static LoginPolicy defaultLoginPolicy() {
+    return new LoginPolicy(
+      getDefaultValue(LOGIN_ATTEMPTS_CODE, 5),
+      getDefaultValue(LOGIN_ATTEMPTS_TIMEOUT_CODE, 10),
+      getDefaultValue(LOGIN_ATTEMPTS_TO_WARN_CODE, 3),
+      DEFAULT_PASSWORDS_HISTORY_NUMBER,
+      false,
+      new HashSet<>());
+  }
+
+  private static int getDefaultValue(String key, int defaultValue) {
+    return Integer.parseInt(MODULE_SPECIFIC_ARGS
+      .getOrDefault(key, String.valueOf(defaultValue)));
+  }
+}
@@ -0,0 +1,66 @@
+package org.folio.util;
+
+import io.vertx.core.Future;
+import org.folio.rest.jaxrs.model.CredentialsHistory;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Checks a password against the credentials history of a user.
+ * Rows sharing salt and hash descriptor are hashed once, the hashes are calculated in parallel on the
+ * {@link HashingExecutor}, each hash is compared only to the rows it was calculated for,
+ * and the check completes on the first match without hashing the rows that have not started yet.
+ */
+public final class PasswordHistoryVerifier {
+
+  private PasswordHistoryVerifier() {
+    //not called
+  }
+
+  /**
+   * @param authUtil - hash calculation
+   * @param password - plain text password
+   * @param history  - credentials history rows
+   * @return - future with true if the password matches any of the rows
+   */
+  public static Future<Boolean> isPresent(AuthUtil authUtil, String password, List<CredentialsHistory> history) {
+    Map<String, List<CredentialsHistory>> rowsBySalt = history.stream()
+      .filter(row -> row.getSalt() != null && row.getHash() != null)
+      .collect(Collectors.groupingBy(row -> row.getSalt() + "/" + HashDescriptor.parse(row.getHashDescriptor()),
+        LinkedHashMap::new, Collectors.toList()));
+    if (rowsBySalt.isEmpty()) {
+      return Future.succeededFuture(Boolean.FALSE);
+    }
+
+    Future<Boolean> future = Future.future();
+    AtomicBoolean done = new AtomicBoolean();
+    AtomicInteger pending = new AtomicInteger(rowsBySalt.size());
+    rowsBySalt.values().forEach(rows -> {
+      CredentialsHistory row = rows.get(0);
+      HashDescriptor descriptor = HashDescriptor.parse(row.getHashDescriptor());
+      Set<String> hashes = rows.stream().map(CredentialsHistory::getHash).collect(Collectors.toSet());
+      HashingExecutor.getInstance()
+        .execute(() -> done.get() ? null : authUtil.calculateHash(password, row.getSalt(), descriptor))
+        .setHandler(hash -> {
+          if (hash.failed()) {
+            if (done.compareAndSet(false, true)) {
+              future.fail(hash.cause());
+            }
+          } else if (hash.result() != null && hashes.contains(hash.result())) {
+            if (done.compareAndSet(false, true)) {
+              future.complete(Boolean.TRUE);
+            }
+          } else if (pending.decrementAndGet() == 0 && done.compareAndSet(false, true)) {
+            future.complete(Boolean.FALSE);
+          }
+        });
+    });
+    return future;
+  }
+}
@@ -0,0 +1,168 @@
+package org.folio.util;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Byte oriented PBKDF2 (RFC 2898) producing the same output as the JCE {@code PBKDF2WithHmac*} key factories.
+ * {@link Mac} instances and scratch buffers are confined to the calling thread and reused between calls,
+ * so hashing neither looks up security providers nor allocates per iteration.
+ */
+public final class Pbkdf2 {
+
+  private static final String ALGORITHM_PREFIX = "PBKDF2With";
+  private static final char[] HEX_DIGITS = "0123456789ABCDEF".toCharArray();
+
+  private static final ThreadLocal<Map<String, Mac>> macs = ThreadLocal.withInitial(HashMap::new);
+  private static final ThreadLocal<Scratch> scratch = ThreadLocal.withInitial(Scratch::new);
+
+  private Pbkdf2() {
+    //not called
+  }
+
+  /**
+   * @param algorithm - JCE algorithm name, e.g. PBKDF2WithHmacSHA1
+   * @return - true if the algorithm can be computed by this class
+   */
+  public static boolean supports(String algorithm) {
+    if (algorithm == null || !algorithm.startsWith(ALGORITHM_PREFIX)) {
+      return false;
+    }
+    try {
+      getMac(algorithm.substring(ALGORITHM_PREFIX.length()));
+      return true;
+    } catch (GeneralSecurityException e) {
+      return false;
+    }
+  }
+
+  /**
+   * Derives the key of the password
+   *
+   * @param algorithm  - JCE algorithm name, e.g. PBKDF2WithHmacSHA1
+   * @param password   - password, must not be empty
+   * @param salt       - salt
+   * @param iterations - iteration count
+   * @param keyLength  - derived key length in bits
+   * @return - derived key
+   */
+  public static byte[] deriveKey(String algorithm, byte[] password, byte[] salt, int iterations, int keyLength)
+    throws GeneralSecurityException {
+    Mac mac = getMac(algorithm.substring(ALGORITHM_PREFIX.length()));
+    mac.init(new SecretKeySpec(password, mac.getAlgorithm()));
+    int macLength = mac.getMacLength();
+    int keyBytes = keyLength / 8;
+    byte[] key = new byte[keyBytes];
+    Scratch buffers = scratch.get();
+    byte[] u = buffers.u(macLength);
+    byte[] t = buffers.t(macLength);
+    byte[] blockIndex = buffers.blockIndex;
+
+    int blocks = (keyBytes + macLength - 1) / macLength;
+    for (int block = 1; block <= blocks; block++) {
+      blockIndex[0] = (byte) (block >>> 24);
+      blockIndex[1] = (byte) (block >>> 16);
+      blockIndex[2] = (byte) (block >>> 8);
+      blockIndex[3] = (byte) block;
+      mac.update(salt);
+      mac.update(blockIndex);
+      mac.doFinal(u, 0);
+      System.arraycopy(u, 0, t, 0, macLength);
+      for (int i = 1; i < iterations; i++) {
+        mac.update(u, 0, macLength);
+        mac.doFinal(u, 0);
+        for (int j = 0; j < macLength; j++) {
+          t[j] ^= u[j];
+        }
+      }
+      int offset = (block - 1) * macLength;
+      System.arraycopy(t, 0, key, offset, Math.min(macLength, keyBytes - offset));
+    }
+    return key;
+  }
+
+  /**
+   * Derives the key of the password and returns it hex encoded,
+   * the password is UTF-8 encoded the same way the JCE key factories do it
+   *
+   * @param algorithm  - JCE algorithm name, e.g. PBKDF2WithHmacSHA1
+   * @param password   - password, must not be empty
+   * @param salt       - hex encoded salt
+   * @param iterations - iteration count
+   * @param keyLength  - derived key length in bits
+   * @return - upper case hex encoded key
+   */
+  public static String hash(String algorithm, String password, String salt, int iterations, int keyLength)
+    throws GeneralSecurityException {
+    byte[] key = deriveKey(algorithm, password.getBytes(StandardCharsets.UTF_8), parseHex(salt), iterations, keyLength);
+    return printHex(key);
+  }
+
+  private static Mac getMac(String macAlgorithm) throws GeneralSecurityException {
+    Map<String, Mac> threadMacs = macs.get();
+    Mac mac = threadMacs.get(macAlgorithm);
+    if (mac == null) {
+      mac = Mac.getInstance(macAlgorithm);
+      threadMacs.put(macAlgorithm, mac);
+    }
+    return mac;
+  }
+
+  /**
+   * @param hex - hex encoded bytes, upper or lower case
+   * @return - decoded bytes
+   */
+  public static byte[] parseHex(String hex) {
+    int length = hex.length();
+    if (length % 2 != 0) {
+      throw new IllegalArgumentException("hexBinary needs to be even-length: " + hex);
+    }
+    byte[] bytes = new byte[length / 2];
+    for (int i = 0; i < length; i += 2) {
+      int high = Character.digit(hex.charAt(i), 16);
+      int low = Character.digit(hex.charAt(i + 1), 16);
+      if (high < 0 || low < 0) {
+        throw new IllegalArgumentException("contains illegal character for hexBinary: " + hex);
+      }
+      bytes[i / 2] = (byte) ((high << 4) | low);
+    }
+    return bytes;
+  }
+
+  /**
+   * @param bytes - bytes to encode
+   * @return - upper case hex encoded bytes
+   */
+  public static String printHex(byte[] bytes) {
+    char[] chars = new char[bytes.length * 2];
+    for (int i = 0; i < bytes.length; i++) {
+      chars[i * 2] = HEX_DIGITS[(bytes[i] >> 4) & 0xF];
+      chars[i * 2 + 1] = HEX_DIGITS[bytes[i] & 0xF];
+    }
+    return new String(chars);
+  }
+
+  private static class Scratch {
+    private final byte[] blockIndex = new byte[4];
+    private byte[] u = new byte[0];
+    private byte[] t = new byte[0];
+
+    private byte[] u(int length) {
+      if (u.length < length) {
+        u = new byte[length];
+      }
+      return u;
+    }
+
+    private byte[] t(int length) {
+      if (t.length < length) {
+        t = new byte[length];
+      }
+      return t;
+    }
+  }
+}
@@ -0,0 +1,28 @@
+package org.folio.util;
+
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+import java.security.GeneralSecurityException;
+
+/**
+ * PBKDF2 hash engine, computes {@code PBKDF2WithHmac*} hashes with {@link Pbkdf2}
+ * and falls back to the JCE key factory for what it does not handle
+ */
+public class Pbkdf2HashEngine implements HashEngine {
+
+  @Override
+  public String hash(String password, String salt, HashDescriptor descriptor) {
+    String algorithm = descriptor.getAlgorithm();
+    try {
+      if (!password.isEmpty() && Pbkdf2.supports(algorithm)) {
+        return Pbkdf2.hash(algorithm, password, salt, descriptor.getIterations(), descriptor.getKeyLength());
+      }
+      //the JCE key factory handles what Pbkdf2 does not, e.g. empty passwords
+      PBEKeySpec spec = new PBEKeySpec(password.toCharArray(), Pbkdf2.parseHex(salt),
+        descriptor.getIterations(), descriptor.getKeyLength());
+      return Pbkdf2.printHex(SecretKeyFactory.getInstance(algorithm).generateSecret(spec).getEncoded());
+    } catch (GeneralSecurityException e) {
+      throw new RuntimeException(e);
+    }
+  }
+}
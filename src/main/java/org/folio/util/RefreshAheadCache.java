@@ -0,0 +1,128 @@
+package org.folio.util;
+
+import io.vertx.core.Future;
+import io.vertx.core.logging.Logger;
+import io.vertx.core.logging.LoggerFactory;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Small in-memory cache of per-key snapshots (e.g. per tenant) with time to live,
+ * refresh-ahead reloading in the background and serving of stale values when reloading fails.
+ * Concurrent loads of a key are coalesced into one, and after a failed reload the stale value is served
+ * without further loads until a retry backoff has passed, so an outage of the source is not hit by every caller.
+ *
+ * @param <V> - type of the cached snapshot
+ */
+public class RefreshAheadCache<V> {
+
+  private static final double REFRESH_AHEAD_FACTOR = 0.75;
+  private static final long MAX_RETRY_BACKOFF_MILLIS = 5000;
+
+  private final Logger logger = LoggerFactory.getLogger(RefreshAheadCache.class);
+  private final Map<String, Entry<V>> entries = new ConcurrentHashMap<>();
+  private final SingleFlight<V> loads = new SingleFlight<>();
+  private final String name;
+  private final long ttlMillis;
+  private final long refreshAheadMillis;
+  private final long retryBackoffMillis;
+
+  /**
+   * @param name      - cache name used for logging
+   * @param ttlMillis - time to live of a snapshot, 0 or less disables caching
+   */
+  public RefreshAheadCache(String name, long ttlMillis) {
+    this.name = name;
+    this.ttlMillis = ttlMillis;
+    this.refreshAheadMillis = (long) (ttlMillis * REFRESH_AHEAD_FACTOR);
+    this.retryBackoffMillis = Math.min(ttlMillis, MAX_RETRY_BACKOFF_MILLIS);
+  }
+
+  /**
+   * Returns the cached snapshot for the key, loading it when absent or expired.
+   * A snapshot older than the refresh-ahead threshold is served as is while a reload runs in the background.
+   *
+   * @param key    - cache key
+   * @param loader - loads a new snapshot, receives the previous (possibly stale) snapshot or null
+   * @return - future with the snapshot
+   */
+  public Future<V> get(String key, Function<V, Future<V>> loader) {
+    if (ttlMillis <= 0) {
+      return loader.apply(null);
+    }
+    Entry<V> entry = entries.get(key);
+    if (entry == null) {
+      return load(key, null, loader);
+    }
+    long now = System.currentTimeMillis();
+    if (now < entry.refreshAt) {
+      return Future.succeededFuture(entry.value);
+    }
+    if (now < entry.expiresAt) {
+      logger.debug("Refreshing " + name + " snapshot for " + key + " ahead of expiration");
+      load(key, entry, loader);
+      return Future.succeededFuture(entry.value);
+    }
+    return load(key, entry, loader);
+  }
+
+  private Future<V> load(String key, Entry<V> previous, Function<V, Future<V>> loader) {
+    V previousValue = previous != null ? previous.value : null;
+    return loads.execute(key, () -> {
+      Future<V> future = Future.future();
+      Future<V> loaded;
+      try {
+        loaded = loader.apply(previousValue);
+      } catch (Exception e) {
+        loaded = Future.failedFuture(e);
+      }
+      loaded.setHandler(res -> {
+        long now = System.currentTimeMillis();
+        if (res.succeeded()) {
+          entries.put(key, new Entry<>(res.result(), now + refreshAheadMillis, now + ttlMillis));
+          future.complete(res.result());
+        } else if (previous != null) {
+          logger.warn("Failed to reload " + name + " snapshot for " + key + ", serving stale value for "
+            + retryBackoffMillis + " ms: " + res.cause().getMessage());
+          // re-stamped so callers get the stale value right away and only one reload runs per backoff
+          long retryAt = now + retryBackoffMillis;
+          entries.put(key, new Entry<>(previousValue, retryAt, retryAt + ttlMillis - refreshAheadMillis));
+          future.complete(previousValue);
+        } else {
+          future.fail(res.cause());
+        }
+      });
+      return future;
+    });
+  }
+
+  /**
+   * Drops the snapshot of the key
+   *
+   * @param key - cache key
+   */
+  public void invalidate(String key) {
+    entries.remove(key);
+  }
+
+  /**
+   * Drops all snapshots
+   */
+  public void invalidateAll() {
+    entries.clear();
+  }
+
+  private static class Entry<V> {
+    private final V value;
+    private final long refreshAt;
+    private final long expiresAt;
+
+    private Entry(V value, long refreshAt, long expiresAt) {
+      this.value = value;
+      this.refreshAt = refreshAt;
+      this.expiresAt = expiresAt;
+    }
+  }
+}
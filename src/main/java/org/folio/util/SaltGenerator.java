@@ -0,0 +1,128 @@
+package org.folio.util;
+
+import io.vertx.core.logging.Logger;
+import io.vertx.core.logging.LoggerFactory;
+
+import java.security.SecureRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import static org.folio.rest.RestVerticle.MODULE_SPECIFIC_ARGS;
+
+/**
+ * Shared salt source backed by a single {@link SecureRandom}.
+ * Salts are generated ahead of time into a ring buffer by a background thread
+ * and handed out with an atomic swap, so callers on the event loop never wait for the RNG.
+ * When the buffer runs dry a salt is generated inline and a refill is scheduled.
+ */
+public class SaltGenerator {
+
+  private static final String SALT_BUFFER_SIZE = "salt.buffer.size";
+  private static final int SALT_BYTES = 20;
+  private static final String THREAD_NAME = "login-salt-generator";
+
+  private static final Logger logger = LoggerFactory.getLogger(SaltGenerator.class);
+  private static SaltGenerator instance;
+
+  private final SecureRandom random = new SecureRandom();
+  private final AtomicReferenceArray<String> slots;
+  private final int mask;
+  private final AtomicLong takeIndex = new AtomicLong();
+  private final AtomicInteger available = new AtomicInteger();
+  private final AtomicBoolean refilling = new AtomicBoolean();
+  private final AtomicLong inlineCount = new AtomicLong();
+  private final ExecutorService refillExecutor;
+
+  /**
+   * @param bufferSize - number of pre-generated salts, rounded up to a power of two, 0 disables the buffer
+   */
+  public SaltGenerator(int bufferSize) {
+    int size = bufferSize <= 0 ? 0 : Integer.highestOneBit(Math.max(1, bufferSize - 1)) << 1;
+    this.slots = new AtomicReferenceArray<>(size);
+    this.mask = size - 1;
+    this.refillExecutor = size == 0 ? null : Executors.newSingleThreadExecutor(runnable -> {
+      Thread thread = new Thread(runnable, THREAD_NAME);
+      thread.setDaemon(true);
+      return thread;
+    });
+    scheduleRefill();
+  }
+
+  /**
+   * Returns the shared generator sized from module specific arg `salt.buffer.size` (default - 1024)
+   *
+   * @return shared salt generator
+   */
+  public static synchronized SaltGenerator getInstance() {
+    if (instance == null) {
+      instance = new SaltGenerator(Integer.parseInt(MODULE_SPECIFIC_ARGS.getOrDefault(SALT_BUFFER_SIZE, "1024")));
+    }
+    return instance;
+  }
+
+  /**
+   * @return - upper case hex encoded random salt
+   */
+  public String next() {
+    if (slots.length() > 0) {
+      String salt = slots.getAndSet((int) (takeIndex.getAndIncrement() & mask), null);
+      if (salt != null) {
+        if (available.decrementAndGet() < slots.length() / 2) {
+          scheduleRefill();
+        }
+        return salt;
+      }
+      scheduleRefill();
+    }
+    inlineCount.incrementAndGet();
+    return generate();
+  }
+
+  /**
+   * @return - number of salts currently buffered
+   */
+  public int getAvailable() {
+    return available.get();
+  }
+
+  /**
+   * @return - number of salts generated on the caller's thread because the buffer was empty
+   */
+  public long getInlineCount() {
+    return inlineCount.get();
+  }
+
+  private String generate() {
+    byte[] bytes = new byte[SALT_BYTES];
+    random.nextBytes(bytes);
+    return Pbkdf2.printHex(bytes);
+  }
+
+  private void scheduleRefill() {
+    if (refillExecutor == null || !refilling.compareAndSet(false, true)) {
+      return;
+    }
+    try {
+      refillExecutor.execute(this::refill);
+    } catch (Exception e) {
+      refilling.set(false);
+      logger.error("Scheduling salt buffer refill failed: " + e.getMessage());
+    }
+  }
+
+  private void refill() {
+    try {
+      for (int i = 0; i < slots.length(); i++) {
+        if (slots.get(i) == null && slots.compareAndSet(i, null, generate())) {
+          available.incrementAndGet();
+        }
+      }
+    } finally {
+      refilling.set(false);
+    }
+  }
+}
@@ -0,0 +1,74 @@
+package org.folio.util;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Context;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent calls for the same key into a single upstream call.
+ * The first caller for a key runs the call, callers arriving while it is in flight
+ * wait for its result, which is delivered to each of them on their own Vert.x context.
+ *
+ * @param <V> - type of the call result
+ */
+public class SingleFlight<V> {
+
+  private final Map<String, List<Handler<AsyncResult<V>>>> inFlight = new ConcurrentHashMap<>();
+  private final AtomicLong coalescedCount = new AtomicLong();
+
+  /**
+   * Runs the call unless a call for the same key is already in flight, then shares its result
+   *
+   * @param key  - key identifying the call
+   * @param call - upstream call
+   * @return - future with the result of the call
+   */
+  public Future<V> execute(String key, Supplier<Future<V>> call) {
+    Context context = Vertx.currentContext();
+    Future<V> future = Future.future();
+    Handler<AsyncResult<V>> waiter = ar -> {
+      if (context != null && context != Vertx.currentContext()) {
+        context.runOnContext(v -> future.handle(ar));
+      } else {
+        future.handle(ar);
+      }
+    };
+    boolean[] leader = {false};
+    inFlight.compute(key, (k, waiters) -> {
+      if (waiters == null) {
+        leader[0] = true;
+        waiters = new ArrayList<>();
+      } else {
+        coalescedCount.incrementAndGet();
+      }
+      waiters.add(waiter);
+      return waiters;
+    });
+    if (leader[0]) {
+      Future<V> result;
+      try {
+        result = call.get();
+      } catch (Exception e) {
+        result = Future.failedFuture(e);
+      }
+      result.setHandler(ar -> inFlight.remove(key).forEach(handler -> handler.handle(ar)));
+    }
+    return future;
+  }
+
+  /**
+   * @return - number of calls that were served by another in-flight call
+   */
+  public long getCoalescedCount() {
+    return coalescedCount.get();
+  }
+}
@@ -0,0 +1,88 @@
+package org.folio.util;
+
+import io.vertx.core.Future;
+import io.vertx.ext.sql.ResultSet;
+import org.folio.rest.persist.PostgresClient;
+
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.folio.rest.RestVerticle.MODULE_SPECIFIC_ARGS;
+
+/**
+ * How the totalRecords of a listing is calculated.
+ * {@link #EXACT} runs a full count with the page, {@link #NONE} skips it, {@link #ESTIMATED} takes
+ * the row estimate of the query planner and counts exactly only when the estimate is small
+ * (module specific arg `count.exact.threshold`, default - 1000), where a count is cheap.
+ */
+public enum TotalRecords {
+  EXACT, ESTIMATED, NONE;
+
+  private static final String COUNT_EXACT_THRESHOLD = "count.exact.threshold";
+  private static final String EXPLAIN_SQL = "EXPLAIN SELECT 1 FROM %s %s";
+  private static final String COUNT_SQL = "SELECT count(*) FROM (SELECT 1 FROM %s %s) matches";
+  private static final Pattern PLAN_ROWS = Pattern.compile("rows=(\\d+)");
+
+  /**
+   * @param value - query parameter value, case insensitive
+   * @return - mode, {@link #EXACT} when the value is absent
+   */
+  public static TotalRecords parse(String value) {
+    if (value == null || value.isEmpty()) {
+      return EXACT;
+    }
+    return valueOf(value.toUpperCase(Locale.ROOT));
+  }
+
+  /**
+   * Calculates the total of a page that was read without count
+   *
+   * @param pgClient - postgres client of the tenant
+   * @param table    - schema qualified table name
+   * @param where    - WHERE clause of the page query without limit and offset, may be empty
+   * @param offset   - offset of the page
+   * @param limit    - limit of the page
+   * @param pageSize - number of records in the page
+   * @return - future with the total, null for {@link #NONE}
+   */
+  public Future<Integer> total(PostgresClient pgClient, String table, String where,
+                               int offset, int limit, int pageSize) {
+    if (this == NONE) {
+      return Future.succeededFuture();
+    }
+    // a partial page that is not past the end knows the total already
+    if (pageSize < limit && (pageSize > 0 || offset == 0)) {
+      return Future.succeededFuture(offset + pageSize);
+    }
+    if (this == EXACT) {
+      return count(pgClient, table, where);
+    }
+    return estimate(pgClient, table, where).compose(estimate -> {
+      int threshold = Integer.parseInt(MODULE_SPECIFIC_ARGS.getOrDefault(COUNT_EXACT_THRESHOLD, "1000"));
+      if (estimate < threshold) {
+        return count(pgClient, table, where);
+      }
+      return Future.succeededFuture(Math.max(estimate, offset + pageSize));
+    });
+  }
+
+  private static Future<Integer> estimate(PostgresClient pgClient, String table, String where) {
+    Future<ResultSet> explain = Future.future();
+    pgClient.select(String.format(EXPLAIN_SQL, table, where), explain.completer());
+    return explain.map(resultSet -> {
+      // the top plan node carries the estimate of the whole query
+      Matcher matcher = PLAN_ROWS.matcher(resultSet.getResults().get(0).getString(0));
+      if (!matcher.find()) {
+        throw new IllegalStateException("No row estimate in the query plan of " + table);
+      }
+      return (int) Math.min(Long.parseLong(matcher.group(1)), Integer.MAX_VALUE);
+    });
+  }
+
+  private static Future<Integer> count(PostgresClient pgClient, String table, String where) {
+    Future<ResultSet> count = Future.future();
+    pgClient.select(String.format(COUNT_SQL, table, where), count.completer());
+    return count.map(resultSet -> resultSet.getResults().get(0).getLong(0).intValue());
+  }
+}
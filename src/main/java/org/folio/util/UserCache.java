@@ -0,0 +1,180 @@
+package org.folio.util;
+
+import io.vertx.core.json.JsonObject;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.folio.rest.RestVerticle.MODULE_SPECIFIC_ARGS;
+
+/**
+ * Optional per-tenant cache of user records returned by mod-users.
+ * Records are kept by username and by id in a bounded LRU map with a short time to live,
+ * "No user found" results are kept with an even shorter time to live.
+ * The cache is disabled by default and turned on with the {@code user.cache.enabled} module arg.
+ */
+public class UserCache {
+
+  private static final String USER_CACHE_ENABLED = "user.cache.enabled";
+  private static final String USER_CACHE_SIZE = "user.cache.size";
+  private static final String USER_CACHE_TTL = "user.cache.ttl";
+  private static final String USER_CACHE_NEGATIVE_TTL = "user.cache.negative.ttl";
+  private static final String USERNAME_KEY_PREFIX = "username:";
+  private static final String ID_KEY_PREFIX = "id:";
+
+  private static UserCache instance;
+
+  private final Map<String, Map<String, Entry>> tenantEntries = new ConcurrentHashMap<>();
+  private final boolean enabled;
+  private final int maxSize;
+  private final long ttlMillis;
+  private final long negativeTtlMillis;
+
+  public UserCache(boolean enabled, int maxSize, long ttlMillis, long negativeTtlMillis) {
+    this.enabled = enabled;
+    this.maxSize = maxSize;
+    this.ttlMillis = ttlMillis;
+    this.negativeTtlMillis = negativeTtlMillis;
+  }
+
+  public static synchronized UserCache getInstance() {
+    if (instance == null) {
+      instance = new UserCache(
+        Boolean.parseBoolean(MODULE_SPECIFIC_ARGS.getOrDefault(USER_CACHE_ENABLED, "false")),
+        Integer.parseInt(MODULE_SPECIFIC_ARGS.getOrDefault(USER_CACHE_SIZE, "1000")),
+        Long.parseLong(MODULE_SPECIFIC_ARGS.getOrDefault(USER_CACHE_TTL, "30")) * 1000,
+        Long.parseLong(MODULE_SPECIFIC_ARGS.getOrDefault(USER_CACHE_NEGATIVE_TTL, "5")) * 1000);
+    }
+    return instance;
+  }
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * Looks up a cached user record
+   *
+   * @param tenant   - tenant id
+   * @param username - username, used when not null
+   * @param userId   - user id, used when username is null
+   * @return - cache lookup result or null when nothing is cached
+   */
+  public Lookup get(String tenant, String username, String userId) {
+    if (!enabled) {
+      return null;
+    }
+    String key = buildKey(username, userId);
+    Map<String, Entry> entries = getEntries(tenant);
+    synchronized (entries) {
+      Entry entry = entries.get(key);
+      if (entry == null) {
+        return null;
+      }
+      if (entry.expiresAt <= System.currentTimeMillis()) {
+        entries.remove(key);
+        return null;
+      }
+      return new Lookup(entry.user != null ? entry.user.copy() : null);
+    }
+  }
+
+  /**
+   * Caches the user record by its username and by its id
+   *
+   * @param tenant - tenant id
+   * @param user   - user record
+   */
+  public void put(String tenant, JsonObject user) {
+    if (!enabled) {
+      return;
+    }
+    Entry entry = new Entry(user.copy(), System.currentTimeMillis() + ttlMillis);
+    Map<String, Entry> entries = getEntries(tenant);
+    synchronized (entries) {
+      if (user.getString("username") != null) {
+        entries.put(USERNAME_KEY_PREFIX + user.getString("username"), entry);
+      }
+      if (user.getString("id") != null) {
+        entries.put(ID_KEY_PREFIX + user.getString("id"), entry);
+      }
+    }
+  }
+
+  /**
+   * Remembers that no user exists for the given username or id
+   *
+   * @param tenant   - tenant id
+   * @param username - username, used when not null
+   * @param userId   - user id, used when username is null
+   */
+  public void putMissing(String tenant, String username, String userId) {
+    if (!enabled || negativeTtlMillis <= 0) {
+      return;
+    }
+    Map<String, Entry> entries = getEntries(tenant);
+    synchronized (entries) {
+      entries.put(buildKey(username, userId), new Entry(null, System.currentTimeMillis() + negativeTtlMillis));
+    }
+  }
+
+  /**
+   * Drops the cached record of the user, e.g. after the user was updated at mod-users
+   *
+   * @param tenant - tenant id
+   * @param user   - user record
+   */
+  public void invalidate(String tenant, JsonObject user) {
+    if (!enabled) {
+      return;
+    }
+    Map<String, Entry> entries = getEntries(tenant);
+    synchronized (entries) {
+      entries.remove(USERNAME_KEY_PREFIX + user.getString("username"));
+      entries.remove(ID_KEY_PREFIX + user.getString("id"));
+    }
+  }
+
+  private Map<String, Entry> getEntries(String tenant) {
+    return tenantEntries.computeIfAbsent(tenant, t -> new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+        return size() > maxSize;
+      }
+    });
+  }
+
+  private static String buildKey(String username, String userId) {
+    return username != null ? USERNAME_KEY_PREFIX + username : ID_KEY_PREFIX + userId;
+  }
+
+  /**
+   * Result of a cache hit, holds no user when the user is known to be absent
+   */
+  public static class Lookup {
+    private final JsonObject user;
+
+    private Lookup(JsonObject user) {
+      this.user = user;
+    }
+
+    public boolean isMissing() {
+      return user == null;
+    }
+
+    public JsonObject getUser() {
+      return user;
+    }
+  }
+
+  private static class Entry {
+    private final JsonObject user;
+    private final long expiresAt;
+
+    private Entry(JsonObject user, long expiresAt) {
+      this.user = user;
+      this.expiresAt = expiresAt;
+    }
+  }
+}
@@ -0,0 +1,139 @@
+package org.folio.util;
+
+import io.vertx.core.json.JsonObject;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import static org.folio.rest.RestVerticle.MODULE_SPECIFIC_ARGS;
+
+/**
+ * Small in-memory set of users blocked after too many failed login attempts.
+ * It lets a login of a blocked user be rejected before the user lookup, the credential read and the hashing.
+ * Entries expire after the tenant's login fail timeout; they are dropped earlier on a successful login
+ * or a password reset, but not when the user is reactivated at mod-users.
+ */
+public class UserLockouts {
+
+  private static final String LOCKOUT_PRECHECK_ENABLED = "login.lockout.precheck";
+  private static final String LOCKOUT_MAX_SIZE = "login.lockout.size";
+  private static final String USERNAME_KEY = "%s:username:%s";
+  private static final String ID_KEY = "%s:id:%s";
+
+  private static UserLockouts instance;
+
+  /**
+   * Lockout expiration time by tenant and user id
+   */
+  private final Map<String, Long> lockouts = new ConcurrentHashMap<>();
+  /**
+   * Lockout key by tenant and username, so that a lockout dropped by user id also covers logins by username
+   */
+  private final Map<String, String> usernameKeys = new ConcurrentHashMap<>();
+  private final boolean enabled;
+  private final int maxSize;
+
+  public UserLockouts(boolean enabled, int maxSize) {
+    this.enabled = enabled;
+    this.maxSize = maxSize;
+  }
+
+  public static synchronized UserLockouts getInstance() {
+    if (instance == null) {
+      instance = new UserLockouts(
+        Boolean.parseBoolean(MODULE_SPECIFIC_ARGS.getOrDefault(LOCKOUT_PRECHECK_ENABLED, "true")),
+        Integer.parseInt(MODULE_SPECIFIC_ARGS.getOrDefault(LOCKOUT_MAX_SIZE, "10000")));
+    }
+    return instance;
+  }
+
+  /**
+   * Remembers the user as blocked
+   *
+   * @param tenant      - tenant id
+   * @param user        - user record
+   * @param failTimeout - timeout in minutes for which the user stays locked out
+   */
+  public void lock(String tenant, JsonObject user, int failTimeout) {
+    String userId = user.getString("id");
+    if (!enabled || failTimeout <= 0 || userId == null) {
+      return;
+    }
+    long now = System.currentTimeMillis();
+    if (lockouts.size() >= maxSize) {
+      lockouts.values().removeIf(expiresAt -> expiresAt <= now);
+      usernameKeys.values().removeIf(idKey -> !lockouts.containsKey(idKey));
+      if (lockouts.size() >= maxSize) {
+        return;
+      }
+    }
+    String idKey = String.format(ID_KEY, tenant, userId);
+    lockouts.put(idKey, now + TimeUnit.MINUTES.toMillis(failTimeout));
+    if (user.getString("username") != null) {
+      usernameKeys.put(String.format(USERNAME_KEY, tenant, user.getString("username")), idKey);
+    }
+  }
+
+  /**
+   * Checks whether the user is locked out
+   *
+   * @param tenant   - tenant id
+   * @param username - username, may be null
+   * @param userId   - user id, may be null
+   * @return - true if the user was blocked and the lockout has not expired yet
+   */
+  public boolean isLocked(String tenant, String username, String userId) {
+    if (!enabled || lockouts.isEmpty()) {
+      return false;
+    }
+    if (userId != null && isLocked(String.format(ID_KEY, tenant, userId))) {
+      return true;
+    }
+    String idKey = username != null ? usernameKeys.get(String.format(USERNAME_KEY, tenant, username)) : null;
+    return idKey != null && isLocked(idKey);
+  }
+
+  private boolean isLocked(String key) {
+    Long expiresAt = lockouts.get(key);
+    if (expiresAt == null) {
+      return false;
+    }
+    if (expiresAt <= System.currentTimeMillis()) {
+      lockouts.remove(key, expiresAt);
+      return false;
+    }
+    return true;
+  }
+
+  /**
+   * Drops the lockout of the user, e.g. after the password was changed
+   *
+   * @param tenant - tenant id
+   * @param user   - user record
+   */
+  public void unlock(String tenant, JsonObject user) {
+    if (!enabled || lockouts.isEmpty()) {
+      return;
+    }
+    if (user.getString("username") != null) {
+      usernameKeys.remove(String.format(USERNAME_KEY, tenant, user.getString("username")));
+    }
+    if (user.getString("id") != null) {
+      unlock(tenant, user.getString("id"));
+    }
+  }
+
+  /**
+   * Drops the lockout of the user, logins by username are unlocked as well
+   *
+   * @param tenant - tenant id
+   * @param userId - user id
+   */
+  public void unlock(String tenant, String userId) {
+    if (!enabled || lockouts.isEmpty()) {
+      return;
+    }
+    lockouts.remove(String.format(ID_KEY, tenant, userId));
+  }
+}
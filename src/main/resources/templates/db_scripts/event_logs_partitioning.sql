@@ -0,0 +1,120 @@
+-- Turns event_logs into a table range partitioned by month of the event timestamp (jsonb->>'timestamp', ISO 8601 UTC).
+-- The table created from schema.json is kept empty as event_logs_template, its indexes and triggers are copied to
+-- each partition, as partitioned tables of PostgreSQL 10 can hold neither. Rows older than the month of the
+-- conversion go to event_logs_older, retention drops whole partitions instead of deleting rows.
+-- Unique indexes such as the eventId one are per partition, so eventId is only unique within a month.
+-- PostgreSQL 10 has no default partition, events outside the created months are rejected by the module.
+
+CREATE OR REPLACE FUNCTION event_logs_create_partition(month date) RETURNS boolean AS $$
+DECLARE
+  month_start date := date_trunc('month', month)::date;
+  partition_name text := 'event_logs_' || to_char(month_start, 'YYYY_MM');
+BEGIN
+  IF to_regclass(partition_name) IS NOT NULL THEN
+    RETURN false;
+  END IF;
+  EXECUTE format('CREATE TABLE %I PARTITION OF event_logs FOR VALUES FROM (%L) TO (%L)', partition_name,
+    to_char(month_start, 'YYYY-MM'), to_char(month_start + interval '1 month', 'YYYY-MM'));
+  PERFORM event_logs_copy_template(partition_name);
+  RETURN true;
+END;
+$$ LANGUAGE plpgsql SET search_path FROM CURRENT;
+
+CREATE OR REPLACE FUNCTION event_logs_copy_template(partition_name text) RETURNS void AS $$
+DECLARE
+  index_name text;
+  definition text;
+BEGIN
+  FOR index_name, definition IN
+    SELECT c.relname, pg_get_indexdef(i.indexrelid) FROM pg_index i JOIN pg_class c ON c.oid = i.indexrelid
+    WHERE i.indrelid = 'event_logs_template'::regclass
+  LOOP
+    definition := replace(definition, ' INDEX ' || quote_ident(index_name) || ' ON ',
+      ' INDEX ' || quote_ident(partition_name || regexp_replace(index_name, '^(event_logs)?_?', '_')) || ' ON ');
+    EXECUTE regexp_replace(definition, ' ON (\S+\.)?event_logs_template ', ' ON ' || quote_ident(partition_name) || ' ');
+  END LOOP;
+  FOR definition IN
+    SELECT pg_get_triggerdef(t.oid) FROM pg_trigger t
+    WHERE t.tgrelid = 'event_logs_template'::regclass AND NOT t.tgisinternal
+  LOOP
+    EXECUTE regexp_replace(definition, ' ON (\S+\.)?event_logs_template ', ' ON ' || quote_ident(partition_name) || ' ');
+  END LOOP;
+END;
+$$ LANGUAGE plpgsql SET search_path FROM CURRENT;
+
+-- Creates the partitions of the reference month and the months_ahead following months, as well as the months
+-- missed since the latest partition, drops the partitions that only hold events older than retention_months
+-- before the reference month (0 keeps all)
+CREATE OR REPLACE FUNCTION event_logs_maintain_partitions(months_ahead int, retention_months int,
+  reference date DEFAULT (now() AT TIME ZONE 'UTC')::date) RETURNS int AS $$
+DECLARE
+  month_start date := date_trunc('month', reference)::date;
+  next_month date := month_start;
+  latest_bound text;
+  cutoff text;
+  partition_name text;
+  upper_bound text;
+  dropped int := 0;
+BEGIN
+  SELECT max(substring(pg_get_expr(c.relpartbound, c.oid) from 'TO \(''([^'']+)''\)') COLLATE "C") INTO latest_bound
+    FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid
+    WHERE i.inhparent = 'event_logs'::regclass;
+  IF latest_bound IS NOT NULL AND to_date(latest_bound, 'YYYY-MM') < month_start THEN
+    next_month := to_date(latest_bound, 'YYYY-MM');
+  END IF;
+  WHILE next_month <= month_start + months_ahead * interval '1 month' LOOP
+    PERFORM event_logs_create_partition(next_month);
+    next_month := (next_month + interval '1 month')::date;
+  END LOOP;
+  IF retention_months <= 0 THEN
+    RETURN 0;
+  END IF;
+  cutoff := to_char(month_start - retention_months * interval '1 month', 'YYYY-MM');
+  FOR partition_name, upper_bound IN
+    SELECT c.relname, substring(pg_get_expr(c.relpartbound, c.oid) from 'TO \(''([^'']+)''\)')
+    FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid
+    WHERE i.inhparent = 'event_logs'::regclass
+  LOOP
+    IF upper_bound IS NOT NULL AND upper_bound COLLATE "C" <= cutoff COLLATE "C" THEN
+      EXECUTE format('DROP TABLE %I', partition_name);
+      dropped := dropped + 1;
+    END IF;
+  END LOOP;
+  RETURN dropped;
+END;
+$$ LANGUAGE plpgsql SET search_path FROM CURRENT;
+
+DO $$
+DECLARE
+  first_month text := to_char(now() AT TIME ZONE 'UTC', 'YYYY-MM');
+  event_month date;
+BEGIN
+  IF to_regclass('event_logs_template') IS NOT NULL THEN
+    RETURN;
+  END IF;
+  ALTER TABLE event_logs RENAME TO event_logs_template;
+  CREATE TABLE event_logs (LIKE event_logs_template INCLUDING DEFAULTS)
+    PARTITION BY RANGE ((jsonb->>'timestamp') COLLATE "C");
+  EXECUTE format('CREATE TABLE event_logs_older PARTITION OF event_logs FOR VALUES FROM (MINVALUE) TO (%L)', first_month);
+  PERFORM event_logs_copy_template('event_logs_older');
+  -- the default months ahead, LoginTenantAPI creates the configured ones right after this script
+  PERFORM event_logs_maintain_partitions(3, 0);
+
+  -- every event needs an ISO timestamp to be routed to a partition
+  UPDATE event_logs_template SET jsonb = jsonb_set(jsonb, '{timestamp}', to_jsonb(CASE
+      WHEN jsonb->>'timestamp' ~ '^\d+$' THEN to_char(to_timestamp((jsonb->>'timestamp')::bigint / 1000.0)
+        AT TIME ZONE 'UTC', 'YYYY-MM-DD"T"HH24:MI:SS.MS"+0000"')
+      ELSE coalesce(jsonb->'metadata'->>'createdDate',
+        to_char(now() AT TIME ZONE 'UTC', 'YYYY-MM-DD"T"HH24:MI:SS.MS"+0000"'))
+    END))
+    WHERE jsonb->>'timestamp' IS NULL OR jsonb->>'timestamp' !~ '^\d{4}-\d{2}';
+  FOR event_month IN
+    SELECT DISTINCT to_date(left(jsonb->>'timestamp', 7), 'YYYY-MM') FROM event_logs_template
+    WHERE left(jsonb->>'timestamp', 7) COLLATE "C" >= first_month COLLATE "C"
+  LOOP
+    PERFORM event_logs_create_partition(event_month);
+  END LOOP;
+  INSERT INTO event_logs SELECT * FROM event_logs_template;
+  TRUNCATE event_logs_template;
+END;
+$$;
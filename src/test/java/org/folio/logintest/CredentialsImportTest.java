@@ -0,0 +1,179 @@
+package org.folio.logintest;
+
+import io.restassured.RestAssured;
+import io.restassured.builder.RequestSpecBuilder;
+import io.restassured.response.Response;
+import io.restassured.specification.RequestSpecification;
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.unit.Async;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+import org.folio.rest.RestVerticle;
+import org.folio.rest.jaxrs.model.Credential;
+import org.folio.rest.persist.Criteria.Criteria;
+import org.folio.rest.persist.Criteria.Criterion;
+import org.folio.rest.persist.PostgresClient;
+import org.folio.rest.tools.utils.NetworkUtils;
+import org.folio.util.AuthUtil;
+import org.folio.util.HashDescriptor;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
+import java.util.UUID;
+
+import static org.hamcrest.Matchers.endsWith;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.startsWith;
+
+@RunWith(VertxUnitRunner.class)
+public class CredentialsImportTest {
+
+  private static final String TENANT = "test";
+  private static final String TOKEN = "header.payload.signature";
+  private static final String IMPORT_PATH = "/authn/credentials/import";
+  private static final String PASSWORD = "Imported!1";
+
+  private static Vertx vertx;
+  private static PostgresClient pgClient;
+  private static RequestSpecification spec;
+  private static int port;
+
+  private final AuthUtil authUtil = new AuthUtil();
+
+  @BeforeClass
+  public static void setUp(TestContext context) {
+    vertx = Vertx.vertx();
+    pgClient = PostgresClient.getInstance(vertx, TENANT);
+    port = NetworkUtils.nextFreePort();
+
+    spec = new RequestSpecBuilder()
+      .setBaseUri("http://localhost:" + port)
+      .addHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_OCTET_STREAM)
+      .addHeader(RestVerticle.OKAPI_HEADER_TENANT, TENANT)
+      .addHeader(RestVerticle.OKAPI_HEADER_TOKEN, TOKEN)
+      .build();
+
+    TestUtil.deployModule(vertx, port, TENANT, TOKEN)
+      .setHandler(context.asyncAssertSuccess());
+  }
+
+  @AfterClass
+  public static void tearDown(TestContext context) {
+    PostgresClient.stopEmbeddedPostgres();
+    vertx.close(context.asyncAssertSuccess());
+  }
+
+  @Test
+  public void testImport(TestContext context) {
+    String plainUserId = UUID.randomUUID().toString();
+    String hashedUserId = UUID.randomUUID().toString();
+    String salt = authUtil.getSalt();
+    String hash = authUtil.calculateHash(PASSWORD, salt);
+    String body = String.join("\n",
+      new JsonObject().put("userId", plainUserId).put("password", PASSWORD).encode(),
+      new JsonObject().put("userId", hashedUserId).put("hash", hash).put("salt", salt).encode(),
+      "",
+      "{not json",
+      new JsonObject().put("password", PASSWORD).encode(),
+      new JsonObject().put("userId", plainUserId).put("password", "Other!1").encode());
+
+    Response response = RestAssured.given()
+      .spec(spec)
+      .body(body)
+      .when()
+      .post(IMPORT_PATH)
+      .then()
+      .log().all()
+      .statusCode(200)
+      .body("totalRecords", is(5))
+      .body("created", is(2))
+      .body("failed", is(3))
+      .extract().response();
+
+    context.assertEquals("created", response.path("records[0].status"));
+    context.assertEquals("created", response.path("records[1].status"));
+    context.assertEquals(4, response.<Integer>path("records[2].line"));
+    context.assertEquals("failed", response.path("records[2].status"));
+    context.assertEquals("userId is required", response.path("records[3].message"));
+    context.assertEquals("Duplicate userId in the import", response.path("records[4].message"));
+
+    Async async = context.async();
+    getCredential(plainUserId).setHandler(credential -> {
+      context.assertTrue(credential.succeeded());
+      Credential cred = credential.result();
+      context.assertEquals(cred.getHash(),
+        authUtil.calculateHash(PASSWORD, cred.getSalt(), HashDescriptor.parse(cred.getHashDescriptor())));
+      async.complete();
+    });
+
+    // a second import leaves the existing credentials untouched
+    RestAssured.given()
+      .spec(spec)
+      .body(new JsonObject().put("userId", hashedUserId).put("password", "Other!1").encode())
+      .when()
+      .post(IMPORT_PATH)
+      .then()
+      .log().all()
+      .statusCode(200)
+      .body("created", is(0))
+      .body("records[0].message", is("There already exists credentials for user id '" + hashedUserId + "'"));
+  }
+
+  @Test
+  public void testImportInvalidHashDescriptor() {
+    String salt = authUtil.getSalt();
+    String hash = authUtil.calculateHash(PASSWORD, salt);
+    String body = String.join("\n",
+      new JsonObject().put("userId", UUID.randomUUID().toString()).put("hash", hash).put("salt", salt)
+        .put("hashDescriptor", "foo").encode(),
+      new JsonObject().put("userId", UUID.randomUUID().toString()).put("hash", hash).put("salt", salt)
+        .put("hashDescriptor", "scrypt:1000:160").encode(),
+      new JsonObject().put("userId", UUID.randomUUID().toString()).put("hash", hash).put("salt", salt)
+        .put("hashDescriptor", HashDescriptor.LEGACY.withIterations(Integer.MAX_VALUE).toString()).encode(),
+      new JsonObject().put("userId", UUID.randomUUID().toString()).put("hash", hash).put("salt", "not hex")
+        .put("hashDescriptor", HashDescriptor.LEGACY.toString()).encode(),
+      new JsonObject().put("userId", UUID.randomUUID().toString()).put("hash", hash).put("salt", salt)
+        .put("hashDescriptor", HashDescriptor.LEGACY.toString()).encode());
+
+    RestAssured.given()
+      .spec(spec)
+      .body(body)
+      .when()
+      .post(IMPORT_PATH)
+      .then()
+      .log().all()
+      .statusCode(200)
+      .body("created", is(1))
+      .body("failed", is(4))
+      .body("records[0].message", startsWith("Invalid hashDescriptor, expected algorithm:iterations:keyLength "
+        + "of a known algorithm"))
+      .body("records[0].message", endsWith(": foo"))
+      .body("records[1].status", is("failed"))
+      // logins would spend that many iterations on every attempt
+      .body("records[2].message", startsWith("Invalid hashDescriptor"))
+      .body("records[3].message", is("hash and salt must be hex encoded"))
+      .body("records[4].status", is("created"));
+  }
+
+  private Future<Credential> getCredential(String userId) {
+    Future<Credential> future = Future.future();
+    Criteria criteria = new Criteria()
+      .addField("'userId'")
+      .setOperation(Criteria.OP_EQUAL)
+      .setValue(userId);
+    pgClient.get("auth_credentials", Credential.class, new Criterion(criteria), false, get -> {
+      if (get.failed()) {
+        future.fail(get.cause());
+      } else {
+        future.complete(get.result().getResults().get(0));
+      }
+    });
+    return future;
+  }
+}
@@ -0,0 +1,177 @@
+package org.folio.logintest;
+
+import io.restassured.RestAssured;
+import io.restassured.builder.RequestSpecBuilder;
+import io.restassured.response.Response;
+import io.restassured.specification.RequestSpecification;
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+import org.folio.rest.RestVerticle;
+import org.folio.rest.persist.PostgresClient;
+import org.folio.rest.tools.utils.NetworkUtils;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+@RunWith(VertxUnitRunner.class)
+public class CredentialsKeysetTest {
+
+  private static final String TENANT = "test";
+  private static final String TOKEN = "header.payload.signature";
+  private static final String CREDENTIALS_PATH = "/authn/credentials";
+  private static final String NIL_UUID = "00000000-0000-0000-0000-000000000000";
+  private static final int CREDENTIALS_COUNT = 5;
+
+  private static Vertx vertx;
+  private static RequestSpecification spec;
+  private static int port;
+
+  @BeforeClass
+  public static void setUp(TestContext context) {
+    vertx = Vertx.vertx();
+    port = NetworkUtils.nextFreePort();
+
+    spec = new RequestSpecBuilder()
+      .setBaseUri("http://localhost:" + port)
+      .addHeader(RestVerticle.OKAPI_HEADER_TENANT, TENANT)
+      .addHeader(RestVerticle.OKAPI_HEADER_TOKEN, TOKEN)
+      .build();
+
+    TestUtil.deployModule(vertx, port, TENANT, TOKEN)
+      .compose(v -> importCredentials())
+      .setHandler(context.asyncAssertSuccess());
+  }
+
+  @AfterClass
+  public static void tearDown(TestContext context) {
+    PostgresClient.stopEmbeddedPostgres();
+    vertx.close(context.asyncAssertSuccess());
+  }
+
+  @Test
+  public void testKeysetPages(TestContext context) {
+    Set<String> userIds = new HashSet<>();
+    String after = NIL_UUID;
+    int pages = 0;
+    while (after != null) {
+      Response response = RestAssured.given()
+        .spec(spec)
+        .queryParam("after", after)
+        .queryParam("length", 2)
+        .when()
+        .get(CREDENTIALS_PATH)
+        .then()
+        .statusCode(200)
+        .body("totalRecords", nullValue())
+        .extract().response();
+      List<String> pageUserIds = response.path("credentials.userId");
+      context.assertTrue(pageUserIds.size() <= 2);
+      userIds.addAll(pageUserIds);
+      after = response.path("nextAfter");
+      pages++;
+    }
+    context.assertEquals(3, pages);
+    context.assertEquals(CREDENTIALS_COUNT, userIds.size());
+  }
+
+  @Test
+  public void testKeysetWithQuery() {
+    RestAssured.given()
+      .spec(spec)
+      .queryParam("after", NIL_UUID)
+      .queryParam("query", "userId=*")
+      .when()
+      .get(CREDENTIALS_PATH)
+      .then()
+      .statusCode(400);
+  }
+
+  @Test
+  public void testOffsetPagingKeepsTotal() {
+    RestAssured.given()
+      .spec(spec)
+      .queryParam("length", 2)
+      .when()
+      .get(CREDENTIALS_PATH)
+      .then()
+      .statusCode(200)
+      .body("totalRecords", is(CREDENTIALS_COUNT))
+      .body("nextAfter", nullValue());
+  }
+
+  @Test
+  public void testEstimatedTotalOfSmallTableIsExact() {
+    RestAssured.given()
+      .spec(spec)
+      .queryParam("length", 2)
+      .queryParam("totalRecords", "estimated")
+      .when()
+      .get(CREDENTIALS_PATH)
+      .then()
+      .statusCode(200)
+      .body("totalRecords", is(CREDENTIALS_COUNT));
+  }
+
+  @Test
+  public void testNoTotal() {
+    RestAssured.given()
+      .spec(spec)
+      .queryParam("length", 2)
+      .queryParam("totalRecords", "none")
+      .when()
+      .get(CREDENTIALS_PATH)
+      .then()
+      .statusCode(200)
+      .body("credentials.size()", is(2))
+      .body("totalRecords", nullValue());
+  }
+
+  @Test
+  public void testInvalidTotalRecords() {
+    RestAssured.given()
+      .spec(spec)
+      .queryParam("totalRecords", "approximately")
+      .when()
+      .get(CREDENTIALS_PATH)
+      .then()
+      .statusCode(400);
+  }
+
+  private static Future<Void> importCredentials() {
+    StringBuilder body = new StringBuilder();
+    for (int i = 0; i < CREDENTIALS_COUNT; i++) {
+      body.append(new JsonObject()
+        .put("userId", UUID.randomUUID().toString())
+        .put("password", "Keyset!" + i)
+        .encode()).append('\n');
+    }
+    Future<Void> future = Future.future();
+    vertx.executeBlocking(blocking -> {
+      RestAssured.given()
+        .spec(spec)
+        .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_OCTET_STREAM)
+        .body(body.toString())
+        .when()
+        .post(CREDENTIALS_PATH + "/import")
+        .then()
+        .statusCode(200)
+        .body("created", is(CREDENTIALS_COUNT));
+      blocking.complete();
+    }, future.completer());
+    return future;
+  }
+}
@@ -0,0 +1,144 @@
+package org.folio.logintest;
+
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.sql.ResultSet;
+import io.vertx.ext.sql.UpdateResult;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+import org.folio.rest.RestVerticle;
+import org.folio.rest.persist.PostgresClient;
+import org.folio.rest.tools.utils.NetworkUtils;
+import org.folio.util.EventLogPartitions;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.UUID;
+
+/**
+ * Checks the monthly partitions of event_logs set up by the event_logs_partitioning.sql tenant script
+ * and their maintenance.
+ */
+@RunWith(VertxUnitRunner.class)
+public class EventLogPartitionsTest {
+
+  private static final String TENANT = "partitions";
+  private static final String TOKEN = "header.payload.signature";
+  private static final String OLD_TIMESTAMP = "2001-01-01T00:00:00.000+0000";
+  private static final String PARTITIONS_AHEAD = "event.log.partitions.ahead";
+  private static final int MONTHS_AHEAD = 5;
+
+  private static Vertx vertx;
+  private static PostgresClient pgClient;
+  private static String schema;
+  private static int port;
+
+  @BeforeClass
+  public static void setUp(TestContext context) {
+    vertx = Vertx.vertx();
+    pgClient = PostgresClient.getInstance(vertx, TENANT);
+    schema = PostgresClient.convertToPsqlStandard(TENANT);
+    port = NetworkUtils.nextFreePort();
+    // more than the tenant script creates
+    RestVerticle.MODULE_SPECIFIC_ARGS.put(PARTITIONS_AHEAD, String.valueOf(MONTHS_AHEAD));
+
+    TestUtil.deployModule(vertx, port, TENANT, TOKEN)
+      .setHandler(context.asyncAssertSuccess());
+  }
+
+  @AfterClass
+  public static void tearDown(TestContext context) {
+    RestVerticle.MODULE_SPECIFIC_ARGS.remove(PARTITIONS_AHEAD);
+    PostgresClient.stopEmbeddedPostgres();
+    vertx.close(context.asyncAssertSuccess());
+  }
+
+  @Test
+  public void testTableIsPartitioned(TestContext context) {
+    String currentPartition = partitionName(YearMonth.now(ZoneOffset.UTC));
+    String nextPartition = partitionName(YearMonth.now(ZoneOffset.UTC).plusMonths(1));
+    select(String.format("SELECT to_regclass('%1$s.%2$s'), to_regclass('%1$s.%3$s'), "
+      + "EXISTS (SELECT 1 FROM pg_partitioned_table WHERE partrelid = '%1$s.event_logs'::regclass)",
+      schema, currentPartition, nextPartition))
+      .setHandler(context.asyncAssertSuccess(resultSet -> {
+        context.assertNotNull(resultSet.getResults().get(0).getString(0));
+        context.assertNotNull(resultSet.getResults().get(0).getString(1));
+        context.assertTrue(resultSet.getResults().get(0).getBoolean(2));
+      }));
+  }
+
+  @Test
+  public void testTenantInitCreatesConfiguredPartitionsAhead(TestContext context) {
+    String lastPartition = partitionName(YearMonth.now(ZoneOffset.UTC).plusMonths(MONTHS_AHEAD));
+    select(String.format("SELECT to_regclass('%s.%s')", schema, lastPartition))
+      .setHandler(context.asyncAssertSuccess(resultSet ->
+        context.assertNotNull(resultSet.getResults().get(0).getString(0))));
+  }
+
+  @Test
+  public void testIsWithinPartitions(TestContext context) {
+    context.assertTrue(EventLogPartitions.isWithinPartitions(System.currentTimeMillis()));
+    // retention is off by default, old events go to event_logs_older
+    context.assertTrue(EventLogPartitions.isWithinPartitions(0));
+    context.assertFalse(EventLogPartitions.isWithinPartitions(
+      YearMonth.now(ZoneOffset.UTC).plusMonths(12).atDay(1).atStartOfDay().toInstant(ZoneOffset.UTC).toEpochMilli()));
+  }
+
+  @Test
+  public void testMaintainRunsForEveryTenant(TestContext context) {
+    EventLogPartitions.maintain(vertx).setHandler(context.asyncAssertSuccess(dropped ->
+      // retention is off by default
+      context.assertEquals(0, dropped)));
+  }
+
+  @Test
+  public void testRetentionDropsOldPartitions(TestContext context) {
+    String oldId = UUID.randomUUID().toString();
+    String currentId = UUID.randomUUID().toString();
+    String nextMonth = YearMonth.now(ZoneOffset.UTC).plusMonths(1).atDay(1).toString();
+    String currentTimestamp = YearMonth.now(ZoneOffset.UTC).atDay(1) + "T00:00:00.000+0000";
+
+    Future.succeededFuture()
+      .compose(v -> insertEvent(oldId, OLD_TIMESTAMP))
+      .compose(v -> insertEvent(currentId, currentTimestamp))
+      // keeps one month before the next month, that is the current month only
+      .compose(v -> select(String.format("SELECT %s.event_logs_maintain_partitions(0, 1, '%s')", schema, nextMonth)))
+      .compose(dropped -> {
+        context.assertTrue(dropped.getResults().get(0).getInteger(0) > 0);
+        return select(String.format("SELECT _id::text FROM %s.event_logs ORDER BY _id", schema));
+      })
+      .setHandler(context.asyncAssertSuccess(resultSet -> {
+        context.assertEquals(1, resultSet.getNumRows());
+        context.assertEquals(currentId, resultSet.getResults().get(0).getString(0));
+      }));
+  }
+
+  private static String partitionName(YearMonth month) {
+    return "event_logs_" + month.format(DateTimeFormatter.ofPattern("yyyy_MM"));
+  }
+
+  private Future<Void> insertEvent(String id, String timestamp) {
+    Future<UpdateResult> future = Future.future();
+    JsonObject event = new JsonObject()
+      .put("id", id)
+      .put("eventType", "SUCCESSFUL_LOGIN_ATTEMPT")
+      .put("tenant", TENANT)
+      .put("userId", UUID.randomUUID().toString())
+      .put("timestamp", timestamp);
+    pgClient.execute(String.format("INSERT INTO %s.event_logs (_id, jsonb) VALUES ('%s', '%s'::jsonb)",
+      schema, id, event.encode()), future.completer());
+    return future.map(v -> null);
+  }
+
+  private Future<ResultSet> select(String sql) {
+    Future<ResultSet> future = Future.future();
+    pgClient.select(sql, future.completer());
+    return future;
+  }
+}
@@ -0,0 +1,45 @@
+package org.folio.logintest;
+
+import org.folio.util.HashCalibrator;
+import org.folio.util.HashDescriptor;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class HashCalibratorTest {
+
+  @Test
+  public void testCalibrationKeepsAlgorithmAndKeyLength() {
+    HashCalibrator.Calibration calibration = HashCalibrator.calibrate(HashDescriptor.LEGACY, 20, 1000, 1);
+    HashDescriptor descriptor = calibration.getDescriptor();
+    Assert.assertEquals(HashDescriptor.LEGACY.getAlgorithm(), descriptor.getAlgorithm());
+    Assert.assertEquals(HashDescriptor.LEGACY.getKeyLength(), descriptor.getKeyLength());
+    Assert.assertTrue(descriptor.getIterations() >= 1000);
+    Assert.assertEquals(20, calibration.getTargetMillis());
+    Assert.assertTrue(calibration.getMeasuredMillis() > 0);
+    Assert.assertTrue(calibration.getHashesPerSecond() > 0);
+  }
+
+  @Test
+  public void testHigherTargetGivesMoreIterations() {
+    int fast = HashCalibrator.calibrate(HashDescriptor.LEGACY, 5, 1, 1).getDescriptor().getIterations();
+    int slow = HashCalibrator.calibrate(HashDescriptor.LEGACY, 50, 1, 1).getDescriptor().getIterations();
+    Assert.assertTrue(slow > fast);
+  }
+
+  @Test
+  public void testIterationsAreRoundedToStep() {
+    int iterations = HashCalibrator.calibrate(HashDescriptor.LEGACY, 20, 1, 10000).getDescriptor().getIterations();
+    Assert.assertEquals(0, iterations % 10000);
+    Assert.assertTrue(iterations >= 10000);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidTarget() {
+    HashCalibrator.calibrate(HashDescriptor.LEGACY, 0, 1000, 1);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidStep() {
+    HashCalibrator.calibrate(HashDescriptor.LEGACY, 20, 1000, 0);
+  }
+}
@@ -0,0 +1,64 @@
+package org.folio.logintest;
+
+import org.folio.util.AuthUtil;
+import org.folio.util.HashDescriptor;
+import org.folio.util.HashEngines;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class HashDescriptorTest {
+
+  private static final String SALT = "5A2C0E4F8B7D9A1C3E5F7A9B1D3F5A7C9E1B3D5F";
+
+  @Test
+  public void testParse() {
+    HashDescriptor descriptor = HashDescriptor.parse("PBKDF2WithHmacSHA256:27500:256");
+    Assert.assertEquals("PBKDF2WithHmacSHA256", descriptor.getAlgorithm());
+    Assert.assertEquals(27500, descriptor.getIterations());
+    Assert.assertEquals(256, descriptor.getKeyLength());
+    Assert.assertEquals("PBKDF2WithHmacSHA256:27500:256", descriptor.toString());
+    Assert.assertEquals(descriptor, HashDescriptor.parse(descriptor.toString()));
+  }
+
+  @Test
+  public void testMissingDescriptorIsLegacy() {
+    Assert.assertEquals(HashDescriptor.LEGACY, HashDescriptor.parse(null));
+    Assert.assertEquals(HashDescriptor.LEGACY, HashDescriptor.parse(""));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidDescriptor() {
+    HashDescriptor.parse("PBKDF2WithHmacSHA1:many:160");
+  }
+
+  @Test
+  public void testNeedsRehash() {
+    HashDescriptor target = HashDescriptor.parse("PBKDF2WithHmacSHA1:30000:160");
+    Assert.assertFalse(target.needsRehash(target, 0.5));
+    // a neighbouring calibration step on another node is within the tolerance
+    Assert.assertFalse(HashDescriptor.parse("PBKDF2WithHmacSHA1:20000:160").needsRehash(target, 0.5));
+    Assert.assertFalse(HashDescriptor.parse("PBKDF2WithHmacSHA1:40000:160").needsRehash(target, 0.5));
+    Assert.assertTrue(HashDescriptor.LEGACY.needsRehash(target, 0.5));
+    Assert.assertTrue(HashDescriptor.parse("PBKDF2WithHmacSHA256:30000:160").needsRehash(target, 0.5));
+    Assert.assertTrue(HashDescriptor.parse("PBKDF2WithHmacSHA1:30000:256").needsRehash(target, 0.5));
+  }
+
+  @Test
+  public void testLegacyHashIsUnchanged() {
+    AuthUtil authUtil = new AuthUtil();
+    Assert.assertEquals(authUtil.calculateHash("Admin!10", SALT),
+      authUtil.calculateHash("Admin!10", SALT, HashDescriptor.LEGACY));
+  }
+
+  @Test
+  public void testDescriptorChangesHash() {
+    AuthUtil authUtil = new AuthUtil();
+    Assert.assertNotEquals(authUtil.calculateHash("Admin!10", SALT, HashDescriptor.LEGACY),
+      authUtil.calculateHash("Admin!10", SALT, HashDescriptor.LEGACY.withIterations(2000)));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testUnknownAlgorithm() {
+    HashEngines.get("scrypt");
+  }
+}
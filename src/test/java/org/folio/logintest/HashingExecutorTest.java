@@ -0,0 +1,58 @@
+package org.folio.logintest;
+
+import io.vertx.core.Vertx;
+import io.vertx.ext.unit.Async;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+import org.folio.util.AuthUtil;
+import org.folio.util.HashingExecutor;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+@RunWith(VertxUnitRunner.class)
+public class HashingExecutorTest {
+
+  private static Vertx vertx;
+  private final AuthUtil authUtil = new AuthUtil();
+
+  @BeforeClass
+  public static void setup() {
+    vertx = Vertx.vertx();
+  }
+
+  @AfterClass
+  public static void tearDown(TestContext context) {
+    vertx.close(context.asyncAssertSuccess());
+  }
+
+  @Test
+  public void testAsyncHashMatchesSyncHash(TestContext context) {
+    Async async = context.async();
+    String salt = authUtil.getSalt();
+    String expected = authUtil.calculateHash("password", salt);
+    vertx.runOnContext(v -> {
+      Thread callerThread = Thread.currentThread();
+      authUtil.calculateHashAsync("password", salt).setHandler(hash -> {
+        context.assertTrue(hash.succeeded());
+        context.assertEquals(expected, hash.result());
+        context.assertEquals(callerThread, Thread.currentThread());
+        async.complete();
+      });
+    });
+  }
+
+  @Test
+  public void testMetricsAreCollected(TestContext context) {
+    Async async = context.async();
+    HashingExecutor executor = HashingExecutor.getInstance();
+    long completedBefore = executor.getCompletedCount();
+    executor.execute(() -> "done").setHandler(result -> {
+      context.assertEquals("done", result.result());
+      context.assertTrue(executor.getCompletedCount() > completedBefore);
+      context.assertTrue(executor.getMetrics().containsKey("queueDepth"));
+      async.complete();
+    });
+  }
+}
@@ -0,0 +1,113 @@
+package org.folio.logintest;
+
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.ext.sql.ResultSet;
+import io.vertx.ext.sql.SQLConnection;
+import io.vertx.ext.unit.Async;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+import org.folio.rest.persist.PostgresClient;
+import org.folio.rest.tools.utils.NetworkUtils;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.UUID;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Checks that the userId/date queries on the credentials history, event log and password action tables
+ * can use the expression indexes of schema.json. Sequential scans are disabled for the EXPLAIN,
+ * as on the tiny test tables the planner would prefer them anyway.
+ */
+@RunWith(VertxUnitRunner.class)
+public class IndexUsageTest {
+
+  private static final String TENANT = "test";
+  private static final String TOKEN = "header.payload.signature";
+  private static final String USER_ID = UUID.randomUUID().toString();
+
+  private static Vertx vertx;
+  private static PostgresClient pgClient;
+  private static String schema;
+  private static int port;
+
+  @BeforeClass
+  public static void setUp(TestContext context) {
+    vertx = Vertx.vertx();
+    pgClient = PostgresClient.getInstance(vertx, TENANT);
+    schema = PostgresClient.convertToPsqlStandard(TENANT);
+    port = NetworkUtils.nextFreePort();
+
+    TestUtil.deployModule(vertx, port, TENANT, TOKEN)
+      .setHandler(context.asyncAssertSuccess());
+  }
+
+  @AfterClass
+  public static void tearDown(TestContext context) {
+    PostgresClient.stopEmbeddedPostgres();
+    vertx.close(context.asyncAssertSuccess());
+  }
+
+  @Test
+  public void testCredentialsHistoryCountUsesIndex(TestContext context) {
+    assertIndexScan(context, String.format("SELECT count(_id) FROM %s.auth_credentials_history "
+      + "WHERE jsonb->>'userId' = '%s'", schema, USER_ID), "auth_credentials_history_userid_date_idx");
+  }
+
+  @Test
+  public void testCredentialsHistoryByDateUsesIndex(TestContext context) {
+    assertIndexScan(context, String.format("SELECT _id FROM %s.auth_credentials_history "
+        + "WHERE jsonb->>'userId' = '%s' ORDER BY jsonb->>'date' DESC LIMIT 9", schema, USER_ID),
+      "auth_credentials_history_userid_date_idx");
+  }
+
+  @Test
+  public void testEventLogsDeleteUsesIndex(TestContext context) {
+    // event_logs is partitioned, each partition has its own copy of the index
+    assertIndexScan(context, String.format("DELETE FROM %s.event_logs WHERE jsonb->>'userId' = '%s'",
+      schema, USER_ID), "event_logs_\\w+_userid_idx");
+  }
+
+  @Test
+  public void testPasswordActionByUserIdUsesIndex(TestContext context) {
+    assertIndexScan(context, String.format("SELECT jsonb FROM %s.auth_password_action WHERE jsonb->>'userId' = '%s'",
+      schema, USER_ID), "auth_password_action_userid_idx");
+  }
+
+  /**
+   * @param indexName - index name, a regular expression
+   */
+  private void assertIndexScan(TestContext context, String sql, String indexName) {
+    Async async = context.async();
+    pgClient.startTx(tx -> {
+      if (tx.failed()) {
+        context.fail(tx.cause());
+        return;
+      }
+      SQLConnection connection = tx.result();
+      Future<ResultSet> explain = Future.future();
+      connection.execute("SET LOCAL enable_seqscan = off", set -> {
+        if (set.failed()) {
+          explain.fail(set.cause());
+        } else {
+          connection.query("EXPLAIN " + sql, explain.completer());
+        }
+      });
+      explain.setHandler(result -> pgClient.rollbackTx(tx, rollback -> {
+        if (result.failed()) {
+          context.fail(result.cause());
+          return;
+        }
+        String plan = result.result().getResults().stream()
+          .map(row -> row.getString(0))
+          .collect(Collectors.joining("\n"));
+        context.assertTrue(Pattern.compile(indexName).matcher(plan).find(), plan);
+        async.complete();
+      }));
+    });
+  }
+}
@@ -25,6 +25,7 @@ import org.folio.rest.jaxrs.model.Configurations;
 import org.folio.rest.persist.Criteria.Criterion;
 import org.folio.rest.persist.PostgresClient;
 import org.folio.rest.tools.utils.NetworkUtils;
+import org.folio.util.LoginPolicyLoader;
 import org.junit.AfterClass;
 import org.junit.Before;
 import org.junit.BeforeClass;
@@ -111,6 +112,8 @@ public class LogEventsTest {
   @Before
   public void setUp(TestContext context) {
     Async async = context.async();
+    // each test stubs its own EVENT_LOG settings at mod-configuration
+    LoginPolicyLoader.invalidate(TENANT_ID);
     PostgresClient.getInstance(vertx, TENANT_ID).delete(SNAPSHOTS_TABLE_EVENT_LOGS, new Criterion(), event -> {
       if (event.failed()) {
         context.fail(event.cause());
@@ -217,6 +220,89 @@ public class LogEventsTest {
       .statusCode(HttpStatus.SC_OK);
   }
 
+  @Test
+  public void testRestAPIPostAsync() throws InterruptedException {
+    // create mod-config
+    int mockServerPort = userMockServer.port();
+    Config configGlobal = createConfig(EVENT_LOG_API_MODULE, EVENT_LOG_API_CODE_STATUS, true);
+    Config configReset = createConfig(EVENT_LOG_API_MODULE, EVENT_LOG_API_CODE_RESET_PASSWORD, true);
+    initModConfigStub(mockServerPort, initLoggingConfigurations(configGlobal, configReset));
+    String okapiUrl = "http://localhost:" + mockServerPort;
+
+    JsonObject logEven = getLogEven("tenant", UUID.randomUUID().toString(), EVENT_LOG_API_CODE_RESET_PASSWORD);
+    Response response = request.body(logEven.toString())
+      .header(new Header(OKAPI_URL, okapiUrl))
+      .when()
+      .post(restPath + "?async=true")
+      .then()
+      .statusCode(HttpStatus.SC_ACCEPTED)
+      .extract().response();
+    assertTrue(response.getBody().print().contains("was accepted for the event log"));
+
+    // the event is written with the next batch
+    int totalRecords = 0;
+    for (int i = 0; i < 20 && totalRecords == 0; i++) {
+      Thread.sleep(100);
+      totalRecords = requestGetLogEvent(okapiUrl)
+        .then()
+        .statusCode(HttpStatus.SC_OK)
+        .extract().path("totalRecords");
+    }
+    assertTrue(totalRecords == 1);
+  }
+
+  @Test
+  public void testRestAPIPostAsyncBatchWithBadEvent() throws InterruptedException {
+    // create mod-config
+    int mockServerPort = userMockServer.port();
+    Config configGlobal = createConfig(EVENT_LOG_API_MODULE, EVENT_LOG_API_CODE_STATUS, true);
+    Config configReset = createConfig(EVENT_LOG_API_MODULE, EVENT_LOG_API_CODE_RESET_PASSWORD, true);
+    initModConfigStub(mockServerPort, initLoggingConfigurations(configGlobal, configReset));
+    String okapiUrl = "http://localhost:" + mockServerPort;
+
+    // the duplicate eventId fails the INSERT of the batch, only the duplicate must be lost
+    String eventId = UUID.randomUUID().toString();
+    List<JsonObject> events = Arrays.asList(
+      getLogEven("tenant", UUID.randomUUID().toString(), EVENT_LOG_API_CODE_RESET_PASSWORD).put("eventId", eventId),
+      getLogEven("tenant", UUID.randomUUID().toString(), EVENT_LOG_API_CODE_RESET_PASSWORD).put("eventId", eventId),
+      getLogEven("tenant", UUID.randomUUID().toString(), EVENT_LOG_API_CODE_RESET_PASSWORD));
+    for (JsonObject event : events) {
+      request.body(event.toString())
+        .header(new Header(OKAPI_URL, okapiUrl))
+        .when()
+        .post(restPath + "?async=true")
+        .then()
+        .statusCode(HttpStatus.SC_ACCEPTED);
+    }
+
+    int totalRecords = 0;
+    for (int i = 0; i < 20 && totalRecords < 2; i++) {
+      Thread.sleep(100);
+      totalRecords = requestGetLogEvent(okapiUrl)
+        .then()
+        .statusCode(HttpStatus.SC_OK)
+        .extract().path("totalRecords");
+    }
+    assertTrue(totalRecords == 2);
+  }
+
+  @Test
+  public void testRestAPIPostTimestampOutOfRange() {
+    // create mod-config
+    int mockServerPort = userMockServer.port();
+    Config configGlobal = createConfig(EVENT_LOG_API_MODULE, EVENT_LOG_API_CODE_STATUS, true);
+    Config configReset = createConfig(EVENT_LOG_API_MODULE, EVENT_LOG_API_CODE_RESET_PASSWORD, true);
+    initModConfigStub(mockServerPort, initLoggingConfigurations(configGlobal, configReset));
+    String okapiUrl = "http://localhost:" + mockServerPort;
+
+    // no event log partition is created that far ahead
+    JsonObject logEven = getLogEven(TENANT_ID, UUID.randomUUID().toString(), EVENT_LOG_API_CODE_RESET_PASSWORD)
+      .put("timestamp", "2999-01-01T00:00:00.000+0000");
+    requestPostLogEvent(logEven, okapiUrl)
+      .then()
+      .statusCode(HttpStatus.SC_BAD_REQUEST);
+  }
+
   @Test
   public void testRestAPIWithoutLogConfig() {
     // create mod-config
@@ -265,8 +351,8 @@ public class LogEventsTest {
   }
 
   private void initModConfigStub(int port, Configurations configurations) {
-    String urlTemplate = "/configurations/entries?query=module==%s";
-    UrlPattern urlPattern = urlEqualTo(String.format(urlTemplate, EVENT_LOG_API_MODULE));
+    // the EVENT_LOG settings are loaded with the login policy
+    UrlPattern urlPattern = urlPathEqualTo("/configurations/entries");
     MappingBuilder builder = get(urlPattern);
     stubFor(builder.willReturn(aResponse()
       .withHeader("Content-Type", "application/json")
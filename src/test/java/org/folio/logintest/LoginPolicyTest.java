@@ -0,0 +1,89 @@
+package org.folio.logintest;
+
+import org.folio.rest.jaxrs.model.Config;
+import org.folio.rest.jaxrs.model.Configurations;
+import org.folio.util.LoginPolicy;
+import org.folio.util.LoginPolicyLoader;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.folio.util.LoginAttemptsHelper.LOGIN_ATTEMPTS_CODE;
+import static org.folio.util.LoginAttemptsHelper.LOGIN_ATTEMPTS_TIMEOUT_CODE;
+import static org.folio.util.LoginConfigUtils.EVENT_LOG_API_CODE_STATUS;
+import static org.folio.util.LoginConfigUtils.EVENT_LOG_API_MODULE;
+import static org.folio.util.LoginPolicyLoader.PASSWORD_HISTORY_NUMBER_CONFIG;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class LoginPolicyTest {
+
+  private static final String RESET_PASSWORD = "RESET_PASSWORD";
+  private static final String CREATE_PASSWORD = "CREATE_PASSWORD";
+
+  @Test
+  public void testEnabledCodes() {
+    LoginPolicy policy = LoginPolicyLoader.parseLoginPolicy(configurations(
+      config(EVENT_LOG_API_MODULE, EVENT_LOG_API_CODE_STATUS, true),
+      config(EVENT_LOG_API_MODULE, RESET_PASSWORD, true),
+      config(EVENT_LOG_API_MODULE, CREATE_PASSWORD, false),
+      config("LOGIN", "PASSWORD_CHANGE", true)));
+
+    assertTrue(policy.isEventLogEnabled());
+    assertTrue(policy.isEventEnabled(RESET_PASSWORD));
+    assertFalse(policy.isEventEnabled(CREATE_PASSWORD));
+    assertFalse(policy.isEventEnabled("PASSWORD_CHANGE"));
+    assertEquals(2, policy.getEventLogCodes().size());
+  }
+
+  @Test
+  public void testDisabledStatus() {
+    LoginPolicy policy = LoginPolicyLoader.parseLoginPolicy(configurations(
+      config(EVENT_LOG_API_MODULE, EVENT_LOG_API_CODE_STATUS, false),
+      config(EVENT_LOG_API_MODULE, RESET_PASSWORD, true),
+      config(EVENT_LOG_API_MODULE, CREATE_PASSWORD, null)));
+
+    assertFalse(policy.isEventLogEnabled());
+    assertFalse(policy.isEventEnabled(RESET_PASSWORD));
+  }
+
+  @Test
+  public void testAllSettingsFromOneResponse() {
+    Config failAttempts = config("LOGIN", LOGIN_ATTEMPTS_CODE, true);
+    failAttempts.setValue("7");
+    Config failTimeout = config("LOGIN", LOGIN_ATTEMPTS_TIMEOUT_CODE, true);
+    failTimeout.setValue("15");
+    Config historyNumber = config("PASSWORD", null, true);
+    historyNumber.setConfigName(PASSWORD_HISTORY_NUMBER_CONFIG);
+    historyNumber.setValue("4");
+
+    LoginPolicy policy = LoginPolicyLoader.parseLoginPolicy(configurations(failAttempts, failTimeout, historyNumber,
+      config(EVENT_LOG_API_MODULE, EVENT_LOG_API_CODE_STATUS, true),
+      config(EVENT_LOG_API_MODULE, RESET_PASSWORD, true)));
+
+    assertEquals(7, policy.getFailAttempts());
+    assertEquals(15, policy.getFailTimeout());
+    assertEquals(LoginPolicyLoader.defaultLoginPolicy().getFailToWarnAttempts(), policy.getFailToWarnAttempts());
+    assertEquals(4, policy.getPasswordHistoryNumber());
+    assertTrue(policy.isEventEnabled(RESET_PASSWORD));
+  }
+
+  @Test(expected = UnsupportedOperationException.class)
+  public void testEventCodesAreImmutable() {
+    LoginPolicyLoader.parseLoginPolicy(configurations(config(EVENT_LOG_API_MODULE, EVENT_LOG_API_CODE_STATUS, true)))
+      .getEventLogCodes().add(RESET_PASSWORD);
+  }
+
+  private static Configurations configurations(Config... configs) {
+    return new Configurations().withConfigs(Arrays.asList(configs)).withTotalRecords(configs.length);
+  }
+
+  private static Config config(String module, String code, Boolean enabled) {
+    Config config = new Config();
+    config.setModule(module);
+    config.setCode(code);
+    config.setEnabled(enabled);
+    return config;
+  }
+}
@@ -0,0 +1,126 @@
+package org.folio.logintest;
+
+import io.restassured.RestAssured;
+import io.restassured.builder.RequestSpecBuilder;
+import io.restassured.specification.RequestSpecification;
+import io.vertx.core.Vertx;
+import io.vertx.ext.unit.Async;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+import org.folio.rest.RestVerticle;
+import org.folio.rest.persist.PostgresClient;
+import org.folio.rest.tools.utils.NetworkUtils;
+import org.folio.util.HashingExecutor;
+import org.folio.util.HttpClientRegistry;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
+
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+
+@RunWith(VertxUnitRunner.class)
+public class MetricsTest {
+
+  private static final String TENANT = "test";
+  private static final String TOKEN = "header.payload.signature";
+  private static final String METRICS_PATH = "/authn/metrics";
+
+  private static Vertx vertx;
+  private static RequestSpecification spec;
+  private static int port;
+
+  @BeforeClass
+  public static void setUp(TestContext context) {
+    vertx = Vertx.vertx();
+    port = NetworkUtils.nextFreePort();
+
+    spec = new RequestSpecBuilder()
+      .setBaseUri("http://localhost:" + port)
+      .addHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON)
+      .addHeader(RestVerticle.OKAPI_HEADER_TENANT, TENANT)
+      .addHeader(RestVerticle.OKAPI_HEADER_TOKEN, TOKEN)
+      .build();
+
+    TestUtil.deployModule(vertx, port, TENANT, TOKEN)
+      .setHandler(context.asyncAssertSuccess());
+  }
+
+  @AfterClass
+  public static void tearDown(TestContext context) {
+    PostgresClient.stopEmbeddedPostgres();
+    vertx.close(context.asyncAssertSuccess());
+  }
+
+  @Test
+  public void testHashingMetrics(TestContext context) {
+    HashingExecutor executor = HashingExecutor.getInstance();
+    executor.execute(() -> "done").setHandler(context.asyncAssertSuccess(done ->
+      RestAssured.given()
+        .spec(spec)
+        .when()
+        .get(METRICS_PATH)
+        .then()
+        .log().all()
+        .statusCode(200)
+        .body("hashing.poolSize", is(executor.getPoolSize()))
+        .body("hashing.completed", greaterThanOrEqualTo(1))
+        .body("hashing.queueDepth", greaterThanOrEqualTo(0))
+        .body("hashing.rejected", notNullValue())));
+  }
+
+  @Test
+  public void testOkapiHttpClientMetrics(TestContext context) {
+    int openedBefore = getOpenedConnections();
+
+    lookupThroughPooledClient(context);
+    int opened = getOpenedConnections();
+    context.assertTrue(opened > openedBefore);
+
+    // the kept alive connection is reused
+    lookupThroughPooledClient(context);
+    RestAssured.given()
+      .spec(spec)
+      .when()
+      .get(METRICS_PATH)
+      .then()
+      .log().all()
+      .statusCode(200)
+      .body("okapiHttpClient.maxPoolSize", is(50))
+      .body("okapiHttpClient.openedConnections", is(opened))
+      .body("okapiHttpClient.openConnections", greaterThanOrEqualTo(1));
+  }
+
+  private static int getOpenedConnections() {
+    return RestAssured.given()
+      .spec(spec)
+      .when()
+      .get(METRICS_PATH)
+      .then()
+      .statusCode(200)
+      .extract()
+      .path("okapiHttpClient.openedConnections");
+  }
+
+  /**
+   * Sends a request with the shared client the module uses for its Okapi lookups and waits for the response
+   */
+  private static void lookupThroughPooledClient(TestContext context) {
+    Async async = context.async();
+    HttpClientRegistry.getClient(vertx).getAbs("http://localhost:" + port + METRICS_PATH)
+      .putHeader(RestVerticle.OKAPI_HEADER_TENANT, TENANT)
+      .putHeader(RestVerticle.OKAPI_HEADER_TOKEN, TOKEN)
+      .handler(response -> response.bodyHandler(body -> {
+        context.assertEquals(200, response.statusCode());
+        async.complete();
+      }))
+      .exceptionHandler(context::fail)
+      .end();
+    async.awaitSuccess(5000);
+  }
+}
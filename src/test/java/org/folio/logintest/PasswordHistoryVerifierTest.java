@@ -0,0 +1,90 @@
+package org.folio.logintest;
+
+import io.vertx.core.Vertx;
+import io.vertx.ext.unit.Async;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+import org.folio.rest.jaxrs.model.CredentialsHistory;
+import org.folio.util.AuthUtil;
+import org.folio.util.HashDescriptor;
+import org.folio.util.PasswordHistoryVerifier;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+@RunWith(VertxUnitRunner.class)
+public class PasswordHistoryVerifierTest {
+
+  private static final String PASSWORD = "Password!1";
+
+  private static Vertx vertx;
+  private final AuthUtil authUtil = new AuthUtil();
+
+  @BeforeClass
+  public static void setup() {
+    vertx = Vertx.vertx();
+  }
+
+  @AfterClass
+  public static void tearDown(TestContext context) {
+    vertx.close(context.asyncAssertSuccess());
+  }
+
+  @Test
+  public void testPasswordInHistory(TestContext context) {
+    List<CredentialsHistory> history = buildHistory(23);
+    history.add(buildRow(PASSWORD, authUtil.getSalt(), HashDescriptor.LEGACY.withIterations(1500)));
+    verify(context, history, true);
+  }
+
+  @Test
+  public void testPasswordNotInHistory(TestContext context) {
+    verify(context, buildHistory(24), false);
+  }
+
+  @Test
+  public void testHashIsComparedToItsOwnRow(TestContext context) {
+    // the password's hash with salt A is stored in a row with salt B
+    String salt = authUtil.getSalt();
+    CredentialsHistory row = buildRow("other", authUtil.getSalt(), HashDescriptor.LEGACY)
+      .withHash(authUtil.calculateHash(PASSWORD, salt));
+    List<CredentialsHistory> history = new ArrayList<>();
+    history.add(row);
+    history.add(buildRow("another", salt, HashDescriptor.LEGACY));
+    verify(context, history, false);
+  }
+
+  @Test
+  public void testEmptyHistory(TestContext context) {
+    verify(context, Collections.emptyList(), false);
+  }
+
+  private void verify(TestContext context, List<CredentialsHistory> history, boolean expected) {
+    Async async = context.async();
+    vertx.runOnContext(v -> PasswordHistoryVerifier.isPresent(authUtil, PASSWORD, history).setHandler(result -> {
+      context.assertTrue(result.succeeded());
+      context.assertEquals(expected, result.result());
+      async.complete();
+    }));
+  }
+
+  private List<CredentialsHistory> buildHistory(int size) {
+    List<CredentialsHistory> history = new ArrayList<>();
+    for (int i = 0; i < size; i++) {
+      history.add(buildRow("Password!" + (i + 2), authUtil.getSalt(), HashDescriptor.LEGACY));
+    }
+    return history;
+  }
+
+  private CredentialsHistory buildRow(String password, String salt, HashDescriptor descriptor) {
+    return new CredentialsHistory()
+      .withSalt(salt)
+      .withHash(authUtil.calculateHash(password, salt, descriptor))
+      .withHashDescriptor(descriptor.toString());
+  }
+}
@@ -0,0 +1,58 @@
+package org.folio.logintest;
+
+import org.folio.util.AuthUtil;
+import org.folio.util.Pbkdf2;
+import org.junit.Assert;
+import org.junit.Test;
+
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+import javax.xml.bind.DatatypeConverter;
+
+public class Pbkdf2Test {
+
+  private static final String SALT = "5A2C0E4F8B7D9A1C3E5F7A9B1D3F5A7C9E1B3D5F";
+  private static final String[] PASSWORDS = {"Admin!10", "p", "pässwörd ☃ 😀"};
+
+  @Test
+  public void testOutputIsIdenticalToKeyFactory() throws Exception {
+    for (String algorithm : new String[]{"PBKDF2WithHmacSHA1", "PBKDF2WithHmacSHA256", "PBKDF2WithHmacSHA512"}) {
+      for (int keyLength : new int[]{160, 256, 520}) {
+        for (String password : PASSWORDS) {
+          byte[] expected = SecretKeyFactory.getInstance(algorithm)
+            .generateSecret(new PBEKeySpec(password.toCharArray(), DatatypeConverter.parseHexBinary(SALT), 1000, keyLength))
+            .getEncoded();
+          Assert.assertEquals(DatatypeConverter.printHexBinary(expected),
+            Pbkdf2.hash(algorithm, password, SALT, 1000, keyLength));
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testAuthUtilHashIsUnchanged() {
+    Assert.assertEquals(
+      DatatypeConverter.printHexBinary(hashWithKeyFactory("Admin!10")),
+      new AuthUtil().calculateHash("Admin!10", SALT));
+    Assert.assertEquals(
+      DatatypeConverter.printHexBinary(hashWithKeyFactory("")),
+      new AuthUtil().calculateHash("", SALT));
+  }
+
+  @Test
+  public void testHexRoundTrip() {
+    byte[] bytes = DatatypeConverter.parseHexBinary(SALT);
+    Assert.assertEquals(SALT, Pbkdf2.printHex(bytes));
+    Assert.assertArrayEquals(bytes, Pbkdf2.parseHex(SALT.toLowerCase()));
+  }
+
+  private byte[] hashWithKeyFactory(String password) {
+    try {
+      return SecretKeyFactory.getInstance("PBKDF2WithHmacSHA1")
+        .generateSecret(new PBEKeySpec(password.toCharArray(), DatatypeConverter.parseHexBinary(SALT), 1000, 160))
+        .getEncoded();
+    } catch (Exception e) {
+      throw new RuntimeException(e);
+    }
+  }
+}
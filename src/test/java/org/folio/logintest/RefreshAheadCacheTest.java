@@ -0,0 +1,96 @@
+package org.folio.logintest;
+
+import io.vertx.core.CompositeFuture;
+import io.vertx.core.Future;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+import org.folio.util.RefreshAheadCache;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+@RunWith(VertxUnitRunner.class)
+public class RefreshAheadCacheTest {
+
+  private static final String TENANT = "diku";
+
+  @Test
+  public void testSnapshotIsCached(TestContext context) {
+    RefreshAheadCache<Integer> cache = new RefreshAheadCache<>("test", 60000);
+    AtomicInteger loads = new AtomicInteger();
+    cache.get(TENANT, previous -> Future.succeededFuture(loads.incrementAndGet()));
+    cache.get(TENANT, previous -> Future.succeededFuture(loads.incrementAndGet()))
+      .setHandler(context.asyncAssertSuccess(value -> {
+        context.assertEquals(1, value);
+        context.assertEquals(1, loads.get());
+      }));
+  }
+
+  @Test
+  public void testStaleSnapshotIsServedOnError(TestContext context) throws InterruptedException {
+    RefreshAheadCache<Integer> cache = new RefreshAheadCache<>("test", 10);
+    cache.get(TENANT, previous -> Future.succeededFuture(1));
+    Thread.sleep(20);
+    cache.get(TENANT, previous -> Future.failedFuture("mod-configuration is down"))
+      .setHandler(context.asyncAssertSuccess(value -> context.assertEquals(1, value)));
+  }
+
+  @Test
+  public void testConcurrentLoadsAreCoalesced(TestContext context) {
+    RefreshAheadCache<Integer> cache = new RefreshAheadCache<>("test", 60000);
+    AtomicInteger loads = new AtomicInteger();
+    Future<Integer> pending = Future.future();
+    Future<Integer> first = cache.get(TENANT, previous -> {
+      loads.incrementAndGet();
+      return pending;
+    });
+    Future<Integer> second = cache.get(TENANT, previous -> {
+      loads.incrementAndGet();
+      return Future.succeededFuture(2);
+    });
+    pending.complete(1);
+    CompositeFuture.all(first, second).setHandler(context.asyncAssertSuccess(all -> {
+      context.assertEquals(1, loads.get());
+      context.assertEquals(1, second.result());
+    }));
+  }
+
+  @Test
+  public void testFailedReloadBacksOff(TestContext context) throws InterruptedException {
+    RefreshAheadCache<Integer> cache = new RefreshAheadCache<>("test", 50);
+    AtomicInteger loads = new AtomicInteger();
+    cache.get(TENANT, previous -> Future.succeededFuture(1));
+    Thread.sleep(60);
+    cache.get(TENANT, previous -> {
+      loads.incrementAndGet();
+      return Future.failedFuture("mod-configuration is down");
+    });
+    // within the backoff the stale value is served without another load
+    cache.get(TENANT, previous -> {
+      loads.incrementAndGet();
+      return Future.failedFuture("mod-configuration is down");
+    }).setHandler(context.asyncAssertSuccess(value -> {
+      context.assertEquals(1, value);
+      context.assertEquals(1, loads.get());
+    }));
+  }
+
+  @Test
+  public void testZeroTtlDisablesCaching(TestContext context) {
+    RefreshAheadCache<Integer> cache = new RefreshAheadCache<>("test", 0);
+    AtomicInteger loads = new AtomicInteger();
+    cache.get(TENANT, previous -> Future.succeededFuture(loads.incrementAndGet()));
+    cache.get(TENANT, previous -> Future.succeededFuture(loads.incrementAndGet()))
+      .setHandler(context.asyncAssertSuccess(value -> context.assertEquals(2, value)));
+  }
+
+  @Test
+  public void testInvalidate(TestContext context) {
+    RefreshAheadCache<Integer> cache = new RefreshAheadCache<>("test", 60000);
+    cache.get(TENANT, previous -> Future.succeededFuture(1));
+    cache.invalidate(TENANT);
+    cache.get(TENANT, previous -> Future.succeededFuture(2))
+      .setHandler(context.asyncAssertSuccess(value -> context.assertEquals(2, value)));
+  }
+}
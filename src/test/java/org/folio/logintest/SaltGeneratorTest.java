@@ -0,0 +1,41 @@
+package org.folio.logintest;
+
+import org.folio.util.SaltGenerator;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+public class SaltGeneratorTest {
+
+  @Test
+  public void testBufferIsPrefilled() throws InterruptedException {
+    SaltGenerator generator = new SaltGenerator(64);
+    for (int i = 0; i < 50 && generator.getAvailable() < 64; i++) {
+      Thread.sleep(20);
+    }
+    Assert.assertEquals(64, generator.getAvailable());
+    for (int i = 0; i < 10; i++) {
+      Assert.assertEquals(40, generator.next().length());
+    }
+    Assert.assertEquals(0, generator.getInlineCount());
+  }
+
+  @Test
+  public void testSaltsAreUnique() {
+    SaltGenerator generator = new SaltGenerator(16);
+    Set<String> salts = new HashSet<>();
+    for (int i = 0; i < 1000; i++) {
+      Assert.assertTrue(salts.add(generator.next()));
+    }
+  }
+
+  @Test
+  public void testDisabledBufferGeneratesInline() {
+    SaltGenerator generator = new SaltGenerator(0);
+    Assert.assertTrue(generator.next().matches("[0-9A-F]{40}"));
+    Assert.assertEquals(0, generator.getAvailable());
+    Assert.assertEquals(1, generator.getInlineCount());
+  }
+}
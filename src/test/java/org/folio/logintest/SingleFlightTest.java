@@ -0,0 +1,54 @@
+package org.folio.logintest;
+
+import io.vertx.core.CompositeFuture;
+import io.vertx.core.Future;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+import org.folio.util.SingleFlight;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+@RunWith(VertxUnitRunner.class)
+public class SingleFlightTest {
+
+  @Test
+  public void testConcurrentCallsAreCoalesced(TestContext context) {
+    SingleFlight<String> singleFlight = new SingleFlight<>();
+    AtomicInteger calls = new AtomicInteger();
+    Future<String> upstream = Future.future();
+
+    Future<String> first = singleFlight.execute("diku:gollum", () -> {
+      calls.incrementAndGet();
+      return upstream;
+    });
+    Future<String> second = singleFlight.execute("diku:gollum", () -> {
+      calls.incrementAndGet();
+      return Future.succeededFuture("other");
+    });
+    upstream.complete("gollum");
+
+    CompositeFuture.all(first, second).setHandler(context.asyncAssertSuccess(res -> {
+      context.assertEquals(1, calls.get());
+      context.assertEquals("gollum", first.result());
+      context.assertEquals("gollum", second.result());
+      context.assertEquals(1L, singleFlight.getCoalescedCount());
+    }));
+  }
+
+  @Test
+  public void testFailureIsSharedAndKeyIsReleased(TestContext context) {
+    SingleFlight<String> singleFlight = new SingleFlight<>();
+    Future<String> upstream = Future.future();
+
+    Future<String> first = singleFlight.execute("diku:gollum", () -> upstream);
+    Future<String> second = singleFlight.execute("diku:gollum", () -> upstream);
+    upstream.fail("mod-users is down");
+
+    context.assertTrue(first.failed());
+    context.assertTrue(second.failed());
+    singleFlight.execute("diku:gollum", () -> Future.succeededFuture("gollum"))
+      .setHandler(context.asyncAssertSuccess(value -> context.assertEquals("gollum", value)));
+  }
+}
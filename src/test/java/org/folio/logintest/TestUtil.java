@@ -1,5 +1,6 @@
 package org.folio.logintest;
 
+import io.vertx.core.DeploymentOptions;
 import io.vertx.core.Future;
 import io.vertx.core.Vertx;
 import io.vertx.core.http.CaseInsensitiveHeaders;
@@ -8,6 +9,11 @@ import io.vertx.core.http.HttpClientRequest;
 import io.vertx.core.http.HttpClientResponse;
 import io.vertx.core.http.HttpMethod;
 import io.vertx.core.json.JsonObject;
+import org.apache.http.HttpStatus;
+import org.folio.rest.RestVerticle;
+import org.folio.rest.client.TenantClient;
+import org.folio.rest.persist.PostgresClient;
+
 import java.util.Map;
 
 /**
@@ -100,4 +106,45 @@ public class TestUtil {
     }
     return future;
   }
+
+  /**
+   * Starts the embedded postgres, deploys the module at the port and initializes the tenant
+   *
+   * @return - future completed once the tenant is initialized
+   */
+  public static Future<Void> deployModule(Vertx vertx, int port, String tenant, String token) {
+    try {
+      PostgresClient.setIsEmbedded(true);
+      PostgresClient.getInstance(vertx).startEmbeddedPostgres();
+    } catch (Exception e) {
+      return Future.failedFuture(e);
+    }
+    return deployRestVerticle(vertx, port)
+      .compose(v -> postTenant(port, tenant, token));
+  }
+
+  public static Future<Void> deployRestVerticle(Vertx vertx, int port) {
+    Future<String> future = Future.future();
+    DeploymentOptions options = new DeploymentOptions().setConfig(
+      new JsonObject().put("http.port", port));
+    vertx.deployVerticle(RestVerticle.class, options, future.completer());
+    return future.map(v -> null);
+  }
+
+  public static Future<Void> postTenant(int port, String tenant, String token) {
+    Future<Void> future = Future.future();
+    try {
+      new TenantClient("http://localhost:" + port, tenant, token, false)
+        .postTenant(null, resp -> {
+          if (resp.statusCode() != HttpStatus.SC_CREATED) {
+            future.fail(resp.statusMessage());
+          } else {
+            future.complete();
+          }
+        });
+    } catch (Exception e) {
+      future.fail(e);
+    }
+    return future;
+  }
 }
@@ -14,7 +14,6 @@ import io.vertx.ext.unit.TestContext;
 import io.vertx.ext.unit.junit.VertxUnitRunner;
 import org.apache.http.HttpStatus;
 import org.folio.rest.RestVerticle;
-import org.folio.rest.client.TenantClient;
 import org.folio.rest.impl.LoginAPI;
 import org.folio.rest.jaxrs.model.Credential;
 import org.folio.rest.jaxrs.model.CredentialsHistory;
@@ -91,8 +90,8 @@ public class UpdateCredentialsHistoryTest {
 
     Future.succeededFuture()
       .compose(v -> deployUserMockVerticle())
-      .compose(v -> deployRestVerticle())
-      .compose(v -> postTenant())
+      .compose(v -> TestUtil.deployRestVerticle(vertx, port))
+      .compose(v -> TestUtil.postTenant(port, TENANT, TOKEN))
       .compose(v -> persistCredentials())
       .setHandler(context.asyncAssertSuccess());
 
@@ -206,22 +205,6 @@ public class UpdateCredentialsHistoryTest {
       .map(v -> null);
   }
 
-  private static Future<Void> postTenant() {
-    Future<Void> future = Future.future();
-    try {
-      new TenantClient("http://localhost:" + port, TENANT, TOKEN, false)
-        .postTenant(null, resp -> {
-          if (resp.statusCode() != HttpStatus.SC_CREATED) {
-            future.fail(resp.statusMessage());
-          }
-          future.complete();
-        });
-    } catch (Exception e) {
-      future.fail(e);
-    }
-    return future;
-  }
-
   private static Future<Void> deployUserMockVerticle() {
     Future<String> future = Future.future();
     DeploymentOptions options = new DeploymentOptions().setConfig(
@@ -231,15 +214,6 @@ public class UpdateCredentialsHistoryTest {
     return future.map(v -> null);
   }
 
-  private static Future<Void> deployRestVerticle() {
-    Future<String> future = Future.future();
-    DeploymentOptions options = new DeploymentOptions().setConfig(
-      new JsonObject().put("http.port", port));
-    vertx.deployVerticle(RestVerticle.class, options, future.completer());
-
-    return future.map(v -> null);
-  }
-
   private static Future<Void> persistCredentials() {
     Future<String> future = Future.future();
     authUtil = new AuthUtil();
@@ -0,0 +1,73 @@
+package org.folio.logintest;
+
+import io.vertx.core.json.JsonObject;
+import org.folio.util.UserCache;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class UserCacheTest {
+
+  private static final String TENANT = "diku";
+
+  private final JsonObject gollum = new JsonObject()
+    .put("id", "bc6e4932-6415-40e2-ac1e-67ecdd665366")
+    .put("username", "gollum")
+    .put("active", true);
+
+  @Test
+  public void testUserIsCachedByUsernameAndId() {
+    UserCache cache = new UserCache(true, 10, 60000, 60000);
+    cache.put(TENANT, gollum);
+
+    Assert.assertEquals(gollum, cache.get(TENANT, "gollum", null).getUser());
+    Assert.assertEquals(gollum, cache.get(TENANT, null, gollum.getString("id")).getUser());
+    Assert.assertNull(cache.get("other", "gollum", null));
+  }
+
+  @Test
+  public void testMissingUserIsCached() {
+    UserCache cache = new UserCache(true, 10, 60000, 60000);
+    cache.putMissing(TENANT, "smeagol", null);
+
+    Assert.assertTrue(cache.get(TENANT, "smeagol", null).isMissing());
+  }
+
+  @Test
+  public void testExpiredEntryIsDropped() throws InterruptedException {
+    UserCache cache = new UserCache(true, 10, 10, 10);
+    cache.put(TENANT, gollum);
+    Thread.sleep(20);
+
+    Assert.assertNull(cache.get(TENANT, "gollum", null));
+  }
+
+  @Test
+  public void testLeastRecentlyUsedEntryIsEvicted() {
+    UserCache cache = new UserCache(true, 2, 60000, 60000);
+    cache.putMissing(TENANT, "first", null);
+    cache.putMissing(TENANT, "second", null);
+    cache.get(TENANT, "first", null);
+    cache.putMissing(TENANT, "third", null);
+
+    Assert.assertNotNull(cache.get(TENANT, "first", null));
+    Assert.assertNull(cache.get(TENANT, "second", null));
+  }
+
+  @Test
+  public void testInvalidate() {
+    UserCache cache = new UserCache(true, 10, 60000, 60000);
+    cache.put(TENANT, gollum);
+    cache.invalidate(TENANT, gollum);
+
+    Assert.assertNull(cache.get(TENANT, "gollum", null));
+    Assert.assertNull(cache.get(TENANT, null, gollum.getString("id")));
+  }
+
+  @Test
+  public void testDisabledCache() {
+    UserCache cache = new UserCache(false, 10, 60000, 60000);
+    cache.put(TENANT, gollum);
+
+    Assert.assertNull(cache.get(TENANT, "gollum", null));
+  }
+}
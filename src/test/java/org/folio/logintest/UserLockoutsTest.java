@@ -0,0 +1,62 @@
+package org.folio.logintest;
+
+import io.vertx.core.json.JsonObject;
+import org.folio.util.UserLockouts;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class UserLockoutsTest {
+
+  private static final String TENANT = "diku";
+
+  private final JsonObject gollum = new JsonObject()
+    .put("id", "bc6e4932-6415-40e2-ac1e-67ecdd665366")
+    .put("username", "gollum");
+
+  @Test
+  public void testLockedUserIsFoundByUsernameAndId() {
+    UserLockouts lockouts = new UserLockouts(true, 10);
+    lockouts.lock(TENANT, gollum, 1);
+
+    Assert.assertTrue(lockouts.isLocked(TENANT, "gollum", null));
+    Assert.assertTrue(lockouts.isLocked(TENANT, null, gollum.getString("id")));
+    Assert.assertFalse(lockouts.isLocked("other", "gollum", null));
+    Assert.assertFalse(lockouts.isLocked(TENANT, "bombadil", null));
+  }
+
+  @Test
+  public void testUnlock() {
+    UserLockouts lockouts = new UserLockouts(true, 10);
+    lockouts.lock(TENANT, gollum, 1);
+    lockouts.unlock(TENANT, gollum);
+
+    Assert.assertFalse(lockouts.isLocked(TENANT, "gollum", null));
+  }
+
+  @Test
+  public void testUnlockByIdUnlocksUsername() {
+    UserLockouts lockouts = new UserLockouts(true, 10);
+    lockouts.lock(TENANT, gollum, 1);
+    // a password reset only knows the user id
+    lockouts.unlock(TENANT, gollum.getString("id"));
+
+    Assert.assertFalse(lockouts.isLocked(TENANT, "gollum", null));
+    Assert.assertFalse(lockouts.isLocked(TENANT, null, gollum.getString("id")));
+  }
+
+  @Test
+  public void testZeroTimeoutDoesNotLock() {
+    UserLockouts lockouts = new UserLockouts(true, 10);
+    lockouts.lock(TENANT, gollum, 0);
+
+    Assert.assertFalse(lockouts.isLocked(TENANT, "gollum", null));
+  }
+
+  @Test
+  public void testDisabledLockouts() {
+    UserLockouts lockouts = new UserLockouts(false, 10);
+    lockouts.lock(TENANT, gollum, 1);
+
+    Assert.assertFalse(lockouts.isLocked(TENANT, "gollum", null));
+  }
+}
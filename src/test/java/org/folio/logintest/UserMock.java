@@ -154,25 +154,13 @@ public class UserMock extends AbstractVerticle {
   private void handleConfig(RoutingContext context) {
     try {
       JsonObject responseJson = new JsonObject();
-      String queryString = "code==";
       String query = context.request().getParam("query");
-      if (query.equals(queryString + LOGIN_ATTEMPTS_CODE)) {
-        JsonObject configOb = new JsonObject()
-          .put("value", 2);
-        JsonArray array = new JsonArray();
-        array.add(configOb);
+      if (query.contains(LOGIN_ATTEMPTS_CODE)) {
+        JsonArray array = new JsonArray()
+          .add(buildLoginConfig(LOGIN_ATTEMPTS_CODE, "2"))
+          .add(buildLoginConfig(LOGIN_ATTEMPTS_TIMEOUT_CODE, "1"));
         responseJson.put("configs", array)
-          .put("totalRecords", 1);
-        context.response()
-          .setStatusCode(200)
-          .end(responseJson.encode());
-      } else if (query.equals(queryString + LOGIN_ATTEMPTS_TIMEOUT_CODE)) {
-        JsonObject configOb = new JsonObject()
-          .put("value", 1);
-        JsonArray array = new JsonArray();
-        array.add(configOb);
-        responseJson.put("configs", array)
-          .put("totalRecords", 1);
+          .put("totalRecords", array.size());
         context.response()
           .setStatusCode(200)
           .end(responseJson.encode());
@@ -188,6 +176,15 @@ public class UserMock extends AbstractVerticle {
     }
   }
 
+  private JsonObject buildLoginConfig(String code, String value) {
+    return new JsonObject()
+      .put("module", "LOGIN")
+      .put("configName", "login")
+      .put("code", code)
+      .put("enabled", true)
+      .put("value", value);
+  }
+
   private void handleUserPut(RoutingContext context) {
     admin.put("active", false);
     context.response()